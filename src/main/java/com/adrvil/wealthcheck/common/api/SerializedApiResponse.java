@@ -0,0 +1,20 @@
+package com.adrvil.wealthcheck.common.api;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * An {@link ApiResponse} whose {@code data} is already serialized JSON. Written by
+ * {@link SerializedApiResponseConverter}, which puts the envelope around the bytes
+ * as they are, so a cached payload reaches the client without being decoded.
+ */
+public record SerializedApiResponse(
+        boolean success,
+        int code,
+        String message,
+        byte[] data
+) {
+    public static ResponseEntity<SerializedApiResponse> success(HttpStatus status, String message, byte[] data) {
+        return new ResponseEntity<>(new SerializedApiResponse(true, status.value(), message, data), status);
+    }
+}
@@ -0,0 +1,50 @@
+package com.adrvil.wealthcheck.common.api;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+// Same field order and timestamp format as Jackson writes for ApiResponse
+@Component
+public class SerializedApiResponseConverter extends AbstractHttpMessageConverter<SerializedApiResponse> {
+
+    public SerializedApiResponseConverter() {
+        super(MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return SerializedApiResponse.class.equals(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected SerializedApiResponse readInternal(Class<? extends SerializedApiResponse> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("SerializedApiResponse is write-only", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(SerializedApiResponse response, HttpOutputMessage outputMessage) throws IOException {
+        OutputStream out = outputMessage.getBody();
+        out.write(("{\"success\":" + response.success()
+                + ",\"code\":" + response.code()
+                + ",\"message\":\"").getBytes(StandardCharsets.UTF_8));
+        out.write(JsonStringEncoder.getInstance().quoteAsUTF8(response.message()));
+        out.write("\",\"data\":".getBytes(StandardCharsets.UTF_8));
+        out.write(response.data());
+        out.write((",\"timestamp\":\"" + Instant.now() + "\"}").getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -3,6 +3,7 @@ package com.adrvil.wealthcheck.common.exception;
 import com.adrvil.wealthcheck.common.api.ApiResponseEntity;
 import com.fasterxml.jackson.databind.exc.InvalidFormatException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.dao.DataAccessException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -68,6 +69,13 @@ public class GlobalExceptionHandler {
         return ApiResponseEntity.error(HttpStatus.BAD_REQUEST, "Invalid request payload");
     }
 
+    // Lock conflicts that outlasted TransactionRetry: the request is fine, the timing was not
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    public ApiResponseEntity<Void> handleConcurrencyFailure(ConcurrencyFailureException ex) {
+        log.warn("Concurrency failure after retries: {}", ex.getMessage());
+        return ApiResponseEntity.error(HttpStatus.CONFLICT, "The request conflicted with a concurrent update. Please try again.");
+    }
+
     @ExceptionHandler(DataAccessException.class)
     public ApiResponseEntity<Void> handleDatabaseExceptions(DataAccessException ex) {
         log.error("Database error: ", ex);
@@ -0,0 +1,18 @@
+package com.adrvil.wealthcheck.config;
+
+import java.security.Principal;
+
+/**
+ * Authenticated principal built from the JWT. {@code id} is null for tokens
+ * issued before the account id was embedded as a claim.
+ */
+public record AccountPrincipal(
+        Long id,
+        String email
+) implements Principal {
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
@@ -2,6 +2,7 @@ package com.adrvil.wealthcheck.config;
 
 
 import com.adrvil.wealthcheck.service.JwtService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
@@ -13,8 +14,6 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.User;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -41,19 +40,17 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         try {
             String token = extractTokenFromCookie(request);
 
-            if (token != null && jwtService.isTokenValid(token) && !jwtService.isTokenExpired(token)) {
-                String email = jwtService.extractEmail(token);
+            Claims claims = token != null ? jwtService.verifyToken(token).orElse(null) : null;
+
+            if (claims != null) {
+                String email = claims.getSubject();
 
                 if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                    UserDetails userDetails = User.builder()
-                            .username(email)
-                            .password("")
-                            .authorities(Collections.emptyList())
-                            .build();
+                    AccountPrincipal principal = new AccountPrincipal(JwtService.extractUserId(claims), email);
 
                     UsernamePasswordAuthenticationToken authToken =
                             new UsernamePasswordAuthenticationToken(
-                                    userDetails, null, userDetails.getAuthorities());
+                                    principal, null, Collections.emptyList());
 
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
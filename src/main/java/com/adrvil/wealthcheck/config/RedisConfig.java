@@ -1,17 +1,27 @@
 package com.adrvil.wealthcheck.config;
 
+import com.adrvil.wealthcheck.dto.response.*;
 import com.adrvil.wealthcheck.enums.CacheName;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.springframework.boot.autoconfigure.cache.RedisCacheManagerBuilderCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 
 import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 
 @Configuration
 public class RedisConfig {
@@ -29,11 +39,53 @@ public class RedisConfig {
                         .fromSerializer(serializer))
                 .entryTtl(Duration.ofHours(1));
 
-        return builder -> builder
-                .cacheDefaults(defaultConfig)
-                .withCacheConfiguration(CacheName.USER_CATEGORIES.getValue(),
-                        defaultConfig.entryTtl(Duration.ofDays(7)))
-                .withCacheConfiguration(CacheName.CATEGORY.getValue(),
-                        defaultConfig.entryTtl(Duration.ofDays(7)));
+        // Caches with a known value type are stored as typed Smile (binary JSON, no @class
+        // metadata) and come back as that type; the rest keep the polymorphic JSON default
+        ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+        smileMapper.registerModule(new JavaTimeModule());
+
+        Map<CacheName, RedisCacheConfiguration> typedConfigs = new EnumMap<>(CacheName.class);
+        cacheValueTypes(smileMapper.getTypeFactory()).forEach((cacheName, type) ->
+                typedConfigs.put(cacheName, defaultConfig.serializeValuesWith(RedisSerializationContext.SerializationPair
+                        .fromSerializer(new Jackson2JsonRedisSerializer<>(smileMapper, type)))));
+
+        // Already-serialized response payloads are stored as the bytes themselves
+        RedisCacheConfiguration bytesConfig = defaultConfig.serializeValuesWith(
+                RedisSerializationContext.SerializationPair.byteArray());
+        List.of(CacheName.OVERVIEW_JSON, CacheName.TOP_TRANSACTIONS_JSON, CacheName.RECENT_TRANSACTIONS_JSON,
+                        CacheName.DAILY_NET_JSON, CacheName.TOP_CATEGORIES_JSON)
+                .forEach(cacheName -> typedConfigs.put(cacheName, bytesConfig));
+
+        typedConfigs.computeIfPresent(CacheName.USER_CATEGORIES, (cacheName, config) -> config.entryTtl(Duration.ofDays(7)));
+        typedConfigs.computeIfPresent(CacheName.CATEGORY, (cacheName, config) -> config.entryTtl(Duration.ofDays(7)));
+
+        return builder -> {
+            builder.cacheDefaults(defaultConfig);
+            typedConfigs.forEach((cacheName, config) -> builder.withCacheConfiguration(cacheName.getValue(), config));
+        };
+    }
+
+    private static Map<CacheName, JavaType> cacheValueTypes(TypeFactory types) {
+        JavaType categories = types.constructCollectionType(List.class, CategoryRes.class);
+        JavaType wallets = types.constructCollectionType(List.class, WalletRes.class);
+
+        return Map.ofEntries(
+                Map.entry(CacheName.USER_CATEGORIES, categories),
+                Map.entry(CacheName.DELETED_USER_CATEGORIES, categories),
+                Map.entry(CacheName.CATEGORY, types.constructType(CategoryRes.class)),
+                Map.entry(CacheName.USER_WALLETS, wallets),
+                Map.entry(CacheName.DELETED_USER_WALLETS, wallets),
+                Map.entry(CacheName.WALLET, types.constructType(WalletRes.class)),
+                Map.entry(CacheName.TRANSACTION, types.constructType(TransactionRes.class)),
+                Map.entry(CacheName.TRANSACTION_COUNT, types.constructMapType(Map.class, String.class, Long.class))
+        );
+    }
+
+    // Carries CacheUtil's L1 invalidations between app nodes
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
     }
 }
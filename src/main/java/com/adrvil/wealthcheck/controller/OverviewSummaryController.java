@@ -1,17 +1,20 @@
 package com.adrvil.wealthcheck.controller;
 
 import com.adrvil.wealthcheck.common.api.ApiResponseEntity;
-import com.adrvil.wealthcheck.dto.CurrentOverviewDto;
-import com.adrvil.wealthcheck.dto.OverviewTopTransactionsDto;
+import com.adrvil.wealthcheck.common.api.SerializedApiResponse;
+import com.adrvil.wealthcheck.common.exception.BadRequestException;
 import com.adrvil.wealthcheck.dto.request.MoneyGoalReq;
 import com.adrvil.wealthcheck.dto.response.*;
+import com.adrvil.wealthcheck.enums.HistoryGranularity;
 import com.adrvil.wealthcheck.service.OverviewSummaryService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.time.LocalDate;
 import java.util.Optional;
 
 @RestController
@@ -21,29 +24,44 @@ public class OverviewSummaryController {
 
     private final OverviewSummaryService overviewSummaryService;
 
+    @GetMapping("/dashboard")
+    public ResponseEntity<SerializedApiResponse> getDashboard() {
+        return SerializedApiResponse.success(HttpStatus.OK, "Dashboard", overviewSummaryService.getDashboardJson());
+    }
+
     @GetMapping("/current")
-    public ApiResponseEntity<CurrentOverviewDto> getOverviewSummary() {
-        return ApiResponseEntity.success(HttpStatus.OK, "Overview summary", overviewSummaryService.getOverviewSummary());
+    public ResponseEntity<SerializedApiResponse> getOverviewSummary() {
+        return SerializedApiResponse.success(HttpStatus.OK, "Overview summary", overviewSummaryService.getOverviewSummaryJson());
     }
 
     @GetMapping("/top-transactions")
-    public ApiResponseEntity<OverviewTopTransactionsDto> getTopTransactions() {
-        return ApiResponseEntity.success(HttpStatus.OK, "Top Income/Expense", overviewSummaryService.getTopTransactions());
+    public ResponseEntity<SerializedApiResponse> getTopTransactions() {
+        return SerializedApiResponse.success(HttpStatus.OK, "Top Income/Expense", overviewSummaryService.getTopTransactionsJson());
     }
 
     @GetMapping("/recent-transactions")
-    public ApiResponseEntity<List<TransactionRes>> getRecentTransactionsNew() {
-        return ApiResponseEntity.success(HttpStatus.OK, "Recent Transactions", overviewSummaryService.getRecentTransactions());
+    public ResponseEntity<SerializedApiResponse> getRecentTransactionsNew() {
+        return SerializedApiResponse.success(HttpStatus.OK, "Recent Transactions", overviewSummaryService.getRecentTransactionsJson());
     }
 
     @GetMapping("/daily-net-snapshot")
-    public ApiResponseEntity<List<DailyNetRes>> getDailyNetSnapshot() {
-        return ApiResponseEntity.success(HttpStatus.OK, "Daily Net Snapshot", overviewSummaryService.getDailyNetSnapshot());
+    public ResponseEntity<SerializedApiResponse> getDailyNetSnapshot() {
+        return SerializedApiResponse.success(HttpStatus.OK, "Daily Net Snapshot", overviewSummaryService.getDailyNetSnapshotJson());
+    }
+
+    @GetMapping("/net-worth")
+    public ApiResponseEntity<NetWorthHistoryRes> getNetWorthHistory(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                    @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                                    @RequestParam(defaultValue = "day") String granularity) {
+        HistoryGranularity historyGranularity = HistoryGranularity.fromName(granularity)
+                .orElseThrow(() -> new BadRequestException("Unsupported granularity: " + granularity));
+        return ApiResponseEntity.success(HttpStatus.OK, "Net worth history",
+                overviewSummaryService.getNetWorthHistory(from, to, historyGranularity));
     }
 
     @GetMapping("/top-categories")
-    public ApiResponseEntity<TopCategoriesRes> getTopCategories() {
-        return ApiResponseEntity.success(HttpStatus.OK, "Top Categories", overviewSummaryService.getTopCategories());
+    public ResponseEntity<SerializedApiResponse> getTopCategories() {
+        return SerializedApiResponse.success(HttpStatus.OK, "Top Categories", overviewSummaryService.getTopCategoriesJson());
     }
 
     @GetMapping("/money-goal")
@@ -1,15 +1,29 @@
 package com.adrvil.wealthcheck.controller;
 
 import com.adrvil.wealthcheck.common.api.ApiResponseEntity;
+import com.adrvil.wealthcheck.common.exception.BadRequestException;
 import com.adrvil.wealthcheck.dto.TransactionFilterDto;
 import com.adrvil.wealthcheck.dto.request.TransactionReq;
 import com.adrvil.wealthcheck.dto.response.TransactionFilterRes;
+import com.adrvil.wealthcheck.dto.response.TransactionImportRes;
 import com.adrvil.wealthcheck.dto.response.TransactionRes;
+import com.adrvil.wealthcheck.enums.TransactionFileFormat;
+import com.adrvil.wealthcheck.service.TransactionExportService;
+import com.adrvil.wealthcheck.service.TransactionImportService;
 import com.adrvil.wealthcheck.service.TransactionService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 
 @RestController
 @RequestMapping("/transaction")
@@ -17,6 +31,8 @@ import org.springframework.web.bind.annotation.*;
 public class TransactionController {
 
     private final TransactionService transactionService;
+    private final TransactionImportService transactionImportService;
+    private final TransactionExportService transactionExportService;
 
     @GetMapping
     public ApiResponseEntity<TransactionFilterRes> getAllTransactions(TransactionFilterDto filter) {
@@ -28,6 +44,22 @@ public class TransactionController {
         return ApiResponseEntity.success(HttpStatus.OK, "Transaction List", transactionService.getAllSoftDeletedTransactions(filter));
     }
 
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(TransactionFilterDto filter,
+                                                                    @RequestParam(defaultValue = "csv") String format) {
+        TransactionFileFormat fileFormat = TransactionFileFormat.fromName(format)
+                .orElseThrow(() -> new BadRequestException("Unsupported export format: " + format));
+
+        String filename = "transactions-" + LocalDate.now() + "." + fileFormat.name().toLowerCase();
+        return ResponseEntity.ok()
+                .contentType(new MediaType(fileFormat.getMediaType(), StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(filename, StandardCharsets.UTF_8)
+                        .build()
+                        .toString())
+                .body(transactionExportService.exportTransactions(filter, fileFormat));
+    }
+
     @GetMapping("/{id}")
     public ApiResponseEntity<TransactionRes> getTransactionById(@PathVariable Long id) {
         return ApiResponseEntity.success(HttpStatus.OK, "Transaction found", transactionService.getTransaction(id));
@@ -38,6 +70,19 @@ public class TransactionController {
         return ApiResponseEntity.success(HttpStatus.CREATED, "Transaction created", transactionService.createTransaction(req));
     }
 
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ApiResponseEntity<TransactionImportRes> importTransactions(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                                      InputStream body) {
+        TransactionFileFormat format = TransactionFileFormat.fromContentType(contentType)
+                .orElseThrow(() -> new BadRequestException("Unsupported import format: " + contentType));
+
+        TransactionImportRes report = transactionImportService.importTransactions(body, format);
+        if (report.errorCount() > 0) {
+            return ApiResponseEntity.error(HttpStatus.BAD_REQUEST, "Import rejected, no transactions were saved", report);
+        }
+        return ApiResponseEntity.success(HttpStatus.CREATED, "Transactions imported", report);
+    }
+
     @PutMapping("/{id}")
     public ApiResponseEntity<TransactionRes> updateTransaction(@Valid @RequestBody TransactionReq req,
                                                                @PathVariable Long id) {
@@ -1,14 +1,20 @@
 package com.adrvil.wealthcheck.controller;
 
 import com.adrvil.wealthcheck.common.api.ApiResponseEntity;
+import com.adrvil.wealthcheck.common.exception.BadRequestException;
 import com.adrvil.wealthcheck.dto.request.WalletReq;
+import com.adrvil.wealthcheck.dto.response.WalletBalanceHistoryRes;
+import com.adrvil.wealthcheck.dto.response.WalletBalanceRes;
 import com.adrvil.wealthcheck.dto.response.WalletRes;
+import com.adrvil.wealthcheck.enums.HistoryGranularity;
 import com.adrvil.wealthcheck.service.WalletService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -32,6 +38,23 @@ public class WalletController {
         return ApiResponseEntity.success(HttpStatus.OK, "Wallet found", walletService.getWalletById(id));
     }
 
+    @GetMapping("/{id}/balance")
+    public ApiResponseEntity<WalletBalanceRes> getBalanceAsOf(@PathVariable Long id,
+                                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf) {
+        return ApiResponseEntity.success(HttpStatus.OK, "Wallet balance", walletService.getBalanceAsOf(id, asOf));
+    }
+
+    @GetMapping("/{id}/balance-history")
+    public ApiResponseEntity<WalletBalanceHistoryRes> getBalanceHistory(@PathVariable Long id,
+                                                                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                                        @RequestParam(defaultValue = "day") String granularity) {
+        HistoryGranularity historyGranularity = HistoryGranularity.fromName(granularity)
+                .orElseThrow(() -> new BadRequestException("Unsupported granularity: " + granularity));
+        return ApiResponseEntity.success(HttpStatus.OK, "Wallet balance history",
+                walletService.getBalanceHistory(id, from, to, historyGranularity));
+    }
+
     @PutMapping("/{id}")
     public ApiResponseEntity<WalletRes> updateWallet(@PathVariable Long id,
                                                      @Valid @RequestBody WalletReq walletReq) {
@@ -0,0 +1,10 @@
+package com.adrvil.wealthcheck.dto;
+
+import java.math.BigDecimal;
+
+public record MonthTotalsDto(
+        BigDecimal totalBalance,
+        BigDecimal incomeThisMonth,
+        BigDecimal expenseThisMonth
+) {
+}
@@ -0,0 +1,53 @@
+package com.adrvil.wealthcheck.dto;
+
+import com.adrvil.wealthcheck.common.exception.BadRequestException;
+import com.adrvil.wealthcheck.dto.response.TransactionRes;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Seek position in the transaction list, ordered by (transaction_date, id) descending,
+ * or by (rank, transaction_date, id) descending for ranked search pages, where rank
+ * is the search's ts_rank_cd or similarity score of the last row.
+ * Clients only ever see the opaque encoded form.
+ */
+public record TransactionCursor(
+        Float rank,
+        Instant transactionDate,
+        Long id
+) {
+    private static final String SEPARATOR = "|";
+
+    public static TransactionCursor after(TransactionRes last) {
+        return new TransactionCursor(null, last.transactionDate(), last.id());
+    }
+
+    public static TransactionCursor after(TransactionRes last, float rank) {
+        return new TransactionCursor(rank, last.transactionDate(), last.id());
+    }
+
+    // Float.toString round-trips exactly, so the decoded rank equals the real Postgres returned
+    public String encode() {
+        String raw = transactionDate + SEPARATOR + id + (rank != null ? SEPARATOR + rank : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TransactionCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR);
+            if (parts.length < 2 || parts.length > 3) throw new BadRequestException("Invalid cursor");
+
+            return new TransactionCursor(
+                    parts.length == 3 ? Float.parseFloat(parts[2]) : null,
+                    Instant.parse(parts[0]),
+                    Long.parseLong(parts[1])
+            );
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
@@ -2,7 +2,11 @@ package com.adrvil.wealthcheck.dto;
 
 import com.adrvil.wealthcheck.enums.TransactionType;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDate;
+import java.util.HexFormat;
 
 public record TransactionFilterDto(
         Integer page,
@@ -12,6 +16,33 @@ public record TransactionFilterDto(
         Long categoryId,
         LocalDate fromDate,
         LocalDate toDate,
-        String search
+        String search,
+        String after,       // opaque cursor from a previous page's nextCursor
+        Boolean withCount   // exact totalItems/totalPages; defaults to true unless paging by cursor
 ) {
+    // Offset pages keep the exact totals clients draw paginators from; cursor
+    // pages only need hasMore, and either can override it with withCount
+    public boolean countRequested() {
+        return withCount != null ? withCount : after == null || after.isBlank();
+    }
+
+    /**
+     * Stable digest of the filters that decide which rows match (not paging),
+     * used to key cached counts.
+     */
+    public String filterHash() {
+        String canonical = String.join("|",
+                String.valueOf(type),
+                String.valueOf(walletId),
+                String.valueOf(categoryId),
+                String.valueOf(fromDate),
+                String.valueOf(toDate),
+                String.valueOf(search));
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(canonical.getBytes(StandardCharsets.UTF_8)), 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
 }
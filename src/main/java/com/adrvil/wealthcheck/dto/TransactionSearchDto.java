@@ -0,0 +1,34 @@
+package com.adrvil.wealthcheck.dto;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * How the list query applies TransactionFilterDto.search: a prefix full-text
+ * query over title and notes, or the trigram fallback on title.
+ */
+public record TransactionSearchDto(
+        String term,
+        String tsQuery,
+        boolean fuzzy
+) {
+    /**
+     * Every word must match, each as a prefix: "grab fo" -> "grab:* & fo:*".
+     * Falls back to fuzzy when the term has no searchable words.
+     */
+    public static TransactionSearchDto fullText(String term) {
+        String tsQuery = Arrays.stream(term.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .map(word -> word + ":*")
+                .collect(Collectors.joining(" & "));
+
+        return tsQuery.isEmpty()
+                ? fuzzy(term)
+                : new TransactionSearchDto(term, tsQuery, false);
+    }
+
+    public static TransactionSearchDto fuzzy(String term) {
+        return new TransactionSearchDto(term, null, true);
+    }
+}
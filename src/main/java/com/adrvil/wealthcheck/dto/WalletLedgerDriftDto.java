@@ -0,0 +1,11 @@
+package com.adrvil.wealthcheck.dto;
+
+import java.math.BigDecimal;
+
+public record WalletLedgerDriftDto(
+        Long walletId,
+        Long userId,
+        BigDecimal balance,
+        BigDecimal ledgerBalance
+) {
+}
@@ -0,0 +1,13 @@
+package com.adrvil.wealthcheck.dto.response;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// granularity may be coarser than requested, see HistoryGranularity.fitting
+public record NetWorthHistoryRes(
+        LocalDate from,
+        LocalDate to,
+        String granularity,
+        List<NetWorthPointRes> points
+) {
+}
@@ -0,0 +1,10 @@
+package com.adrvil.wealthcheck.dto.response;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record NetWorthPointRes(
+        LocalDate date,
+        BigDecimal netWorth
+) {
+}
@@ -7,20 +7,27 @@ import java.util.List;
 public record TransactionFilterRes(
         List<TransactionRes> transactions,
         TransactionFilterDto filters,
-        long totalItems,   // total matching items in DB
+        Long totalItems,   // total matching items in DB; null for cursor pages unless withCount=true
         int currentPage,   // 1-based index
         int pageSize,      // requested page size
-        int totalPages     // derived = ceil(totalItems / pageSize)
+        Integer totalPages, // derived = ceil(totalItems / pageSize); null whenever totalItems is
+        boolean hasMore,   // whether another page exists after this one
+        String nextCursor  // pass as "after" to fetch the next page; null on the last page
 ) {
     public static TransactionFilterRes of(List<TransactionRes> transactions,
                                           TransactionFilterDto filters,
-                                          long totalItems) {
+                                          Long totalItems,
+                                          boolean hasMore,
+                                          String nextCursor) {
         int page = filters.page() != null ? filters.page() : 1;
         int size = filters.size() != null ? filters.size() : transactions.size();
 
-        int totalPages = (size > 0)
-                ? (int) Math.ceil((double) totalItems / size)
-                : 1;
+        Integer totalPages = null;
+        if (totalItems != null) {
+            totalPages = (size > 0)
+                    ? (int) Math.ceil((double) totalItems / size)
+                    : 1;
+        }
 
         return new TransactionFilterRes(
                 transactions,
@@ -28,7 +35,9 @@ public record TransactionFilterRes(
                 totalItems,
                 page,
                 size,
-                totalPages
+                totalPages,
+                hasMore,
+                nextCursor
         );
     }
 }
@@ -0,0 +1,13 @@
+package com.adrvil.wealthcheck.dto.response;
+
+import java.util.List;
+
+public record TransactionImportRes(
+        long totalRows,
+        long importedRows,
+        long errorCount,
+        List<RowError> errors   // capped; errorCount has the full number
+) {
+    public record RowError(long line, String message) {
+    }
+}
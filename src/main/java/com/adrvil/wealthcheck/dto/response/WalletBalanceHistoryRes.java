@@ -0,0 +1,14 @@
+package com.adrvil.wealthcheck.dto.response;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// granularity may be coarser than requested, see HistoryGranularity.fitting
+public record WalletBalanceHistoryRes(
+        Long walletId,
+        LocalDate from,
+        LocalDate to,
+        String granularity,
+        List<WalletBalancePointRes> points
+) {
+}
@@ -0,0 +1,11 @@
+package com.adrvil.wealthcheck.dto.response;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record WalletBalanceRes(
+        Long walletId,
+        LocalDate asOf,
+        BigDecimal balance
+) {
+}
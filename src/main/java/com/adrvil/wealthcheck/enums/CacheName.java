@@ -12,16 +12,18 @@ public enum CacheName {
     WALLET("wallet"),
     USER_TRANSACTIONS("user-transactions"),
     TRANSACTION("transaction"),
-    RECENT_TRANSACTIONS("recent-transactions"),
-    TOP_TRANSACTIONS("top-transactions"),
-    OVERVIEW("overview"),
     DELETED_USER_CATEGORIES("deleted-user-categories"),
     DELETED_USER_WALLETS("deleted-user-wallets"),
     DELETED_USER_TRANSACTIONS("deleted-user-transactions"),
-    DAILY_NET("daily-net"),
-    TOP_CATEGORIES("top-categories"),
     MONEY_GOAL("money-goal"),
     MONEY_BUDGET("money-budget"),
+    TRANSACTION_COUNT("transaction-count"),
+    // Overview responses as the JSON bytes of their data payload
+    OVERVIEW_JSON("overview-json"),
+    TOP_TRANSACTIONS_JSON("top-transactions-json"),
+    RECENT_TRANSACTIONS_JSON("recent-transactions-json"),
+    DAILY_NET_JSON("daily-net-json"),
+    TOP_CATEGORIES_JSON("top-categories-json"),
     ;
     private final String value;
 }
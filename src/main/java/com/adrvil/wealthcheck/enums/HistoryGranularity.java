@@ -0,0 +1,52 @@
+package com.adrvil.wealthcheck.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Arrays;
+import java.util.Optional;
+
+@Getter
+@RequiredArgsConstructor
+public enum HistoryGranularity {
+    DAY("day", ChronoUnit.DAYS),
+    WEEK("week", ChronoUnit.WEEKS),
+    MONTH("month", ChronoUnit.MONTHS),
+    ;
+    // PostgreSQL DATE_TRUNC unit
+    private final String value;
+    private final ChronoUnit unit;
+
+    public static Optional<HistoryGranularity> fromName(String name) {
+        return Arrays.stream(values())
+                .filter(granularity -> granularity.name().equalsIgnoreCase(name))
+                .findFirst();
+    }
+
+    // Number of buckets (points) between from and to, both inclusive
+    public long points(LocalDate from, LocalDate to) {
+        return unit.between(truncate(from), to) + 1;
+    }
+
+    // This granularity or the next coarser one that keeps the range within maxPoints; MONTH is the coarsest
+    public HistoryGranularity fitting(LocalDate from, LocalDate to, int maxPoints) {
+        HistoryGranularity granularity = this;
+        while (granularity != MONTH && granularity.points(from, to) > maxPoints) {
+            granularity = values()[granularity.ordinal() + 1];
+        }
+        return granularity;
+    }
+
+    // Same as DATE_TRUNC: weeks start on Monday
+    private LocalDate truncate(LocalDate date) {
+        return switch (this) {
+            case DAY -> date;
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> date.withDayOfMonth(1);
+        };
+    }
+}
@@ -0,0 +1,31 @@
+package com.adrvil.wealthcheck.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+@Getter
+@RequiredArgsConstructor
+public enum TransactionFileFormat {
+    CSV(MediaType.valueOf("text/csv")),
+    NDJSON(MediaType.valueOf("application/x-ndjson")),
+    ;
+    private final MediaType mediaType;
+
+    public static Optional<TransactionFileFormat> fromName(String name) {
+        return Arrays.stream(values())
+                .filter(format -> format.name().equalsIgnoreCase(name))
+                .findFirst();
+    }
+
+    public static Optional<TransactionFileFormat> fromContentType(String contentType) {
+        if (contentType == null || contentType.isBlank()) return Optional.empty();
+        MediaType requested = MediaType.parseMediaType(contentType);
+        return Arrays.stream(values())
+                .filter(format -> format.mediaType.isCompatibleWith(requested))
+                .findFirst();
+    }
+}
@@ -6,6 +6,8 @@ import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.annotations.Update;
 
+import java.util.List;
+
 public interface AccountMapper {
 
     @Insert("""
@@ -38,6 +40,9 @@ public interface AccountMapper {
     @Select("SELECT id FROM account WHERE email = #{email}")
     Long getUserIdByEmail(String email);
 
+    @Select("SELECT id FROM account ORDER BY id")
+    List<Long> findAllIds();
+
     @Update("""
             UPDATE account
             SET is_new_user = #{isNewUser}, updated_at = NOW()
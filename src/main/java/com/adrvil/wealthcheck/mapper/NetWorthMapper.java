@@ -0,0 +1,166 @@
+package com.adrvil.wealthcheck.mapper;
+
+import com.adrvil.wealthcheck.dto.response.NetWorthPointRes;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Select;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * net_worth_daily, see db/005. The per-transaction writes in
+ * TransactionMapper.xml maintain it inline; this mapper covers the import,
+ * the nightly reconcile, the backfill and the history reads. Every write but
+ * the backfill is an additive upsert, so concurrent writers and the reconcile
+ * commute; the backfill replaces a user's rows under that user's wallet locks.
+ */
+public interface NetWorthMapper {
+
+    @Insert("""
+            INSERT INTO net_worth_daily (user_id, day, change)
+            VALUES (#{userId}, #{day}, #{change})
+            ON CONFLICT (user_id, day) DO UPDATE
+            SET change = net_worth_daily.change + EXCLUDED.change
+            """)
+    void applyDelta(Long userId, LocalDate day, BigDecimal change);
+
+    // Held by the backfill and the reconcile, so only one node runs them at a time
+    @Select("""
+            SELECT pg_try_advisory_xact_lock(hashtextextended('net_worth_daily', 0))
+            """)
+    boolean tryLockMaintenance();
+
+    // Books whatever the wallets hold beyond the recorded changes (opening balances,
+    // wallet edits and deletes) on #{today}; returns 1 if there was a difference
+    @Insert("""
+            INSERT INTO net_worth_daily (user_id, day, change)
+            SELECT #{userId}, #{today}, live.total - booked.total
+            FROM (SELECT COALESCE(SUM(balance), 0) AS total
+                  FROM wallet
+                  WHERE user_id = #{userId}
+                    AND soft_deleted = FALSE) live,
+                 (SELECT COALESCE(SUM(change), 0) AS total
+                  FROM net_worth_daily
+                  WHERE user_id = #{userId}) booked
+            WHERE live.total <> booked.total
+            ON CONFLICT (user_id, day) DO UPDATE
+            SET change = net_worth_daily.change + EXCLUDED.change
+            """)
+    int reconcile(Long userId, LocalDate today);
+
+    // Users with nothing booked before their first transaction's day. The backfill
+    // books its opening row there; inline writes and the reconcile never do.
+    @Select("""
+            SELECT a.id
+            FROM account a
+            WHERE NOT EXISTS (
+                SELECT 1
+                FROM net_worth_daily n
+                WHERE n.user_id = a.id
+                    AND n.day < COALESCE(
+                        (SELECT (MIN(t.transaction_date) AT TIME ZONE 'Asia/Manila')::date
+                         FROM transactions t
+                         WHERE t.user_id = a.id
+                             AND t.type IN ('INCOME', 'EXPENSE')
+                             AND t.soft_deleted = FALSE),
+                        #{today}::date + 1))
+            ORDER BY a.id
+            """)
+    List<Long> findIdsToBackfill(LocalDate today);
+
+    // Replaces a user's rows with history rebuilt from transactions; what the wallets
+    // hold beyond their transactions is booked the day before the first one. A no-op
+    // unless the user is still one findIdsToBackfill returns, so it is safe to repeat.
+    // Call with the user's wallets locked (WalletMapper.lockAllByUserId): every write
+    // locks the wallets it touches first, so none lands between the check and the rows.
+    @Options(flushCache = Options.FlushCachePolicy.TRUE)
+    @Select("""
+            WITH daily AS (
+                SELECT
+                    (transaction_date AT TIME ZONE 'Asia/Manila')::date AS day,
+                    SUM(CASE WHEN type = 'INCOME' THEN amount ELSE -amount END) AS change
+                FROM transactions
+                WHERE user_id = #{userId}
+                    AND type IN ('INCOME', 'EXPENSE')
+                    AND soft_deleted = FALSE
+                GROUP BY 1
+            ),
+            pending AS (
+                SELECT NOT EXISTS (
+                    SELECT 1
+                    FROM net_worth_daily
+                    WHERE user_id = #{userId}
+                        AND day < COALESCE((SELECT MIN(day) FROM daily), #{today}::date + 1)) AS needed
+            ),
+            history AS (
+                SELECT day, change
+                FROM daily
+                UNION ALL
+                SELECT COALESCE((SELECT MIN(day) FROM daily) - 1, #{today}),
+                       (SELECT COALESCE(SUM(balance), 0)
+                        FROM wallet
+                        WHERE user_id = #{userId}
+                          AND soft_deleted = FALSE) - (SELECT COALESCE(SUM(change), 0) FROM daily)
+            ),
+            removed AS (
+                DELETE FROM net_worth_daily n
+                WHERE n.user_id = #{userId}
+                    AND (SELECT needed FROM pending)
+                    AND NOT EXISTS (SELECT 1 FROM history h WHERE h.day = n.day)
+            ),
+            written AS (
+                INSERT INTO net_worth_daily (user_id, day, change)
+                SELECT #{userId}, h.day, h.change
+                FROM history h
+                WHERE (SELECT needed FROM pending)
+                ORDER BY h.day
+                ON CONFLICT (user_id, day) DO UPDATE
+                SET change = EXCLUDED.change
+                RETURNING 1
+            )
+            SELECT COUNT(*) FROM written
+            """)
+    int backfill(Long userId, LocalDate today);
+
+    // Closing net worth per bucket of #{unit} (day, week or month) in [from, to],
+    // labelled with the bucket's first day. Changes the reconcile has not booked
+    // yet count on #{today}, so the latest point matches the live wallet total.
+    @Select("""
+            WITH opening AS (
+                SELECT COALESCE(SUM(change), 0) AS net_worth
+                FROM net_worth_daily
+                WHERE user_id = #{userId}
+                    AND day < #{from}
+            ),
+            changes AS (
+                SELECT DATE_TRUNC(#{unit}, day::timestamp)::date AS bucket, SUM(change) AS change
+                FROM (
+                    SELECT day, change
+                    FROM net_worth_daily
+                    WHERE user_id = #{userId}
+                        AND day >= #{from}
+                        AND day <= #{to}
+                    UNION ALL
+                    SELECT #{today}::date,
+                           (SELECT COALESCE(SUM(balance), 0)
+                            FROM wallet
+                            WHERE user_id = #{userId}
+                              AND soft_deleted = FALSE)
+                           - (SELECT COALESCE(SUM(change), 0)
+                              FROM net_worth_daily
+                              WHERE user_id = #{userId})
+                    WHERE #{today} BETWEEN #{from} AND #{to}
+                ) d
+                GROUP BY 1
+            )
+            SELECT
+                s.bucket::date AS date,
+                (SELECT net_worth FROM opening) + SUM(COALESCE(c.change, 0)) OVER (ORDER BY s.bucket) AS net_worth
+            FROM generate_series(DATE_TRUNC(#{unit}, #{from}::timestamp), #{to}::timestamp, ('1 ' || #{unit})::interval) AS s(bucket)
+            LEFT JOIN changes c ON c.bucket = s.bucket::date
+            ORDER BY s.bucket
+            """)
+    List<NetWorthPointRes> getHistory(Long userId, LocalDate from, LocalDate to, String unit, LocalDate today);
+}
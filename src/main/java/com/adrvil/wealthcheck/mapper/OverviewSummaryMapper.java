@@ -1,39 +1,35 @@
 package com.adrvil.wealthcheck.mapper;
 
 import com.adrvil.wealthcheck.dto.CategoryNameProjection;
-import com.adrvil.wealthcheck.dto.TransactionForNetDto;
+import com.adrvil.wealthcheck.dto.MonthTotalsDto;
 import com.adrvil.wealthcheck.dto.response.CategoryPieRes;
+import com.adrvil.wealthcheck.dto.response.DailyNetRes;
 import com.adrvil.wealthcheck.entity.MoneyBudgetEntity;
 import com.adrvil.wealthcheck.entity.MoneyGoalEntity;
 import com.adrvil.wealthcheck.enums.TransactionType;
 import org.apache.ibatis.annotations.*;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
 public interface OverviewSummaryMapper {
+    // Current wallet balance plus this month's income and expense from transaction_month_totals:
+    // a handful of rows per user, however many transactions the month holds
     @Select("""
-                SELECT COALESCE(SUM(balance), 0)
-                FROM wallet
+                SELECT
+                    (SELECT COALESCE(SUM(balance), 0)
+                     FROM wallet
+                     WHERE user_id = #{userId}
+                        AND soft_deleted = false) AS total_balance,
+                    COALESCE(SUM(total) FILTER (WHERE type = 'INCOME'), 0) AS income_this_month,
+                    COALESCE(SUM(total) FILTER (WHERE type = 'EXPENSE'), 0) AS expense_this_month
+                FROM transaction_month_totals
                 WHERE user_id = #{userId}
-                    AND soft_deleted = false
+                    AND month = DATE_TRUNC('month', NOW() AT TIME ZONE 'Asia/Manila')::date
             """)
-    BigDecimal getTotalBalance(Long userId);
-
-    @Select("""
-                SELECT COALESCE(SUM(amount), 0)
-                FROM transactions
-                WHERE type = #{type}::transaction_type
-                    AND transaction_date >= DATE_TRUNC('month', CURRENT_DATE)
-                    AND transaction_date < DATE_TRUNC('month', CURRENT_DATE) + INTERVAL '1 month'
-                    AND user_id = #{userId}
-                    AND soft_deleted = false
-            """)
-    BigDecimal getThisMonthIncomeOrExpense(@Param("userId") Long userId,
-                                           @Param("type") TransactionType type);
+    MonthTotalsDto getMonthTotals(Long userId);
 
 //    @Select("""
 //                SELECT type,
@@ -66,35 +62,48 @@ public interface OverviewSummaryMapper {
     List<CategoryNameProjection> findCategoryNamesByIds(@Param("userId") Long userId,
                                                         @Param("ids") Set<Long> ids);
 
+    // One row per day of [startDate, endDate), bucketed by created_at in Asia/Manila,
+    // with the month's running net; days after today have a null net
     @Select("""
+            WITH daily AS (
+                SELECT
+                    (created_at AT TIME ZONE 'Asia/Manila')::date AS day,
+                    SUM(CASE WHEN type = 'INCOME' THEN amount ELSE -amount END) AS net
+                FROM transactions
+                WHERE user_id = #{userId}
+                    AND type IN ('INCOME', 'EXPENSE')
+                    AND created_at >= (#{startDate}::timestamp AT TIME ZONE 'Asia/Manila')
+                    AND created_at < (#{endDate}::timestamp AT TIME ZONE 'Asia/Manila')
+                    AND soft_deleted = FALSE
+                GROUP BY 1
+            )
             SELECT
-                amount,
-                type,
-                created_at
-            FROM transactions
-            WHERE user_id = #{userId}
-                AND type in ('INCOME','EXPENSE')
-                AND created_at >= #{startDate}
-                AND created_at < #{endDate}
-                AND soft_deleted = FALSE
+                d.day::date AS date,
+                CASE
+                    WHEN d.day > #{today} THEN NULL
+                    ELSE SUM(COALESCE(daily.net, 0)) OVER (ORDER BY d.day)
+                END AS net
+            FROM generate_series(#{startDate}::date, #{endDate}::date - 1, INTERVAL '1 day') AS d(day)
+            LEFT JOIN daily ON daily.day = d.day
+            ORDER BY d.day
             """)
-    List<TransactionForNetDto> getTransactionForNetList(Long userId, LocalDate startDate, LocalDate endDate);
+    List<DailyNetRes> getDailyNetSnapshot(Long userId, LocalDate startDate, LocalDate endDate, LocalDate today);
 
+    // This month's totals per category name, from transaction_month_totals
     @Select("""
             SELECT
                 c.name AS name,
-                SUM(t.amount) AS total_amount
-            FROM transactions t
-            JOIN category c ON t.category_id = c.id
-            WHERE t.user_id = #{userId}
-              AND t.type = #{type}::transaction_type
-              AND t.created_at >= #{startDate}
-              AND t.created_at < #{endDate}
-              AND t.soft_deleted = FALSE
+                SUM(m.total) AS total_amount
+            FROM transaction_month_totals m
+            JOIN category c ON m.category_id = c.id
+            WHERE m.user_id = #{userId}
+              AND m.type = #{type}::transaction_type
+              AND m.month = DATE_TRUNC('month', NOW() AT TIME ZONE 'Asia/Manila')::date
+              AND m.txn_count > 0
             GROUP BY c.name
             ORDER BY total_amount DESC
             """)
-    List<CategoryPieRes> getTopCategories(Long userId, TransactionType type, LocalDate startDate, LocalDate endDate);
+    List<CategoryPieRes> getTopCategories(Long userId, TransactionType type);
 
     @Select("""
             SELECT
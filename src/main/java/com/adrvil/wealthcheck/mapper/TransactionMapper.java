@@ -1,12 +1,14 @@
 package com.adrvil.wealthcheck.mapper;
 
+import com.adrvil.wealthcheck.dto.TransactionCursor;
 import com.adrvil.wealthcheck.dto.TransactionFilterDto;
+import com.adrvil.wealthcheck.dto.TransactionSearchDto;
+import com.adrvil.wealthcheck.dto.request.TransactionReq;
 import com.adrvil.wealthcheck.dto.response.TransactionRes;
 import com.adrvil.wealthcheck.entity.TransactionEntity;
-import com.adrvil.wealthcheck.enums.TransactionType;
 import org.apache.ibatis.annotations.*;
+import org.apache.ibatis.cursor.Cursor;
 
-import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
@@ -43,21 +45,47 @@ public interface TransactionMapper {
     @Options(useGeneratedKeys = true, keyProperty = "id")
     void insert(TransactionEntity transaction);
 
-    @Update("""
-                UPDATE transactions
-                SET
-                    from_wallet_id = #{fromWalletId},
-                    to_wallet_id = #{toWalletId},
-                    category_id = #{categoryId},
-                    title = #{title},
-                    notes = #{notes},
-                    amount = #{amount},
-                    type = #{type}::transaction_type,
-                    transaction_date = #{transactionDate},
-                    updated_at = NOW()
-                WHERE id = #{id} AND user_id = #{userId} AND soft_deleted = FALSE
+    // Same as insert without generated keys: batched import rows are never read back
+    @Insert("""
+                INSERT INTO transactions (
+                     title,
+                     notes,
+                     amount,
+                     user_id,
+                     from_wallet_id,
+                     to_wallet_id,
+                     category_id,
+                     type,
+                     transaction_date,
+                     soft_deleted,
+                     created_at,
+                     updated_at)
+                VALUES (
+                    #{title},
+                    #{notes},
+                    #{amount},
+                    #{userId},
+                    #{fromWalletId},
+                    #{toWalletId},
+                    #{categoryId},
+                    #{type}::transaction_type,
+                    #{transactionDate},
+                    #{softDeleted},
+                    #{createdAt},
+                    #{updatedAt})
             """)
-    int update(TransactionEntity transaction);
+    void insertImported(TransactionEntity transaction);
+
+    // Single-round-trip writes, see TransactionMapper.xml; empty when a check or balance guard failed
+    Optional<TransactionRes> createAndApplyBalance(@Param("userId") Long userId, @Param("req") TransactionReq req);
+
+    Optional<TransactionRes> updateAndApplyDelta(@Param("userId") Long userId,
+                                                 @Param("id") Long id,
+                                                 @Param("req") TransactionReq req);
+
+    Optional<TransactionRes> softDeleteAndRevertBalance(@Param("userId") Long userId, @Param("id") Long id);
+
+    Optional<TransactionRes> restoreAndReapplyBalance(@Param("userId") Long userId, @Param("id") Long id);
 
     @Select("""
                 SELECT t.id,
@@ -98,22 +126,6 @@ public interface TransactionMapper {
             """)
     Optional<TransactionEntity> findByIdAndUserId(Long id, Long userId, boolean softDeleted);
 
-    @Update("""
-            UPDATE transactions
-            SET soft_deleted = TRUE,
-                updated_at = NOW()
-            WHERE id = #{id} AND user_id = #{userId} AND soft_deleted = FALSE
-            """)
-    int softDelete(Long userId, Long id);
-
-    @Update("""
-            UPDATE transactions
-            SET soft_deleted = FALSE,
-                updated_at = NOW()
-            WHERE id = #{id} AND user_id = #{userId} AND soft_deleted = TRUE
-            """)
-    int restoreTransaction(Long userId, Long id);
-
     @Select("SELECT soft_deleted FROM transactions WHERE user_id = #{userId} AND id = #{id}")
     Boolean isSoftDeleted(@Param("userId") Long userId, @Param("id") Long id);
 
@@ -128,12 +140,31 @@ public interface TransactionMapper {
 
     long countTransactions(@Param("userId") Long userId,
                            @Param("filter") TransactionFilterDto filter,
+                           @Param("search") TransactionSearchDto search,
                            @Param("softDeleted") boolean softDeleted);
 
+    boolean hasMatches(@Param("userId") Long userId,
+                       @Param("filter") TransactionFilterDto filter,
+                       @Param("search") TransactionSearchDto search,
+                       @Param("softDeleted") boolean softDeleted);
+
     List<TransactionRes> findTransactions(@Param("userId") Long userId,
                                           @Param("filter") TransactionFilterDto filter,
+                                          @Param("search") TransactionSearchDto search,
+                                          @Param("cursor") TransactionCursor cursor,
+                                          @Param("limit") Integer limit,
                                           @Param("softDeleted") boolean softDeleted);
 
+    float findSearchRank(@Param("userId") Long userId,
+                         @Param("id") Long id,
+                         @Param("search") TransactionSearchDto search);
+
+    // Must be consumed inside a transaction: Postgres only honours fetchSize with autocommit off
+    Cursor<TransactionRes> streamTransactions(@Param("userId") Long userId,
+                                              @Param("filter") TransactionFilterDto filter,
+                                              @Param("search") TransactionSearchDto search,
+                                              @Param("softDeleted") boolean softDeleted);
+
     @Select("""
             SELECT
                 t.id,
@@ -171,6 +202,8 @@ public interface TransactionMapper {
             """)
     List<TransactionRes> getRecentTransactions(Long userId, int limit);
 
+    // Top-N per type: each LATERAL branch walks idx_transactions_user_type_amount
+    // and stops after #{limit} rows; names are joined for those rows only
     @Select("""
             SELECT
                 t.id,
@@ -188,7 +221,16 @@ public interface TransactionMapper {
                 t.transaction_date,
                 t.created_at AS createdAt,
                 t.updated_at AS updatedAt
-                FROM transactions t
+                FROM unnest(ARRAY['INCOME', 'EXPENSE']::transaction_type[]) AS k(type)
+                CROSS JOIN LATERAL (
+                    SELECT *
+                    FROM transactions
+                    WHERE user_id = #{userId}
+                    AND type = k.type
+                    AND soft_deleted = FALSE
+                    ORDER BY amount DESC
+                    LIMIT #{limit}
+                ) t
                 LEFT JOIN wallet fw
                     ON t.from_wallet_id = fw.id
                     AND fw.user_id = #{userId}
@@ -201,39 +243,7 @@ public interface TransactionMapper {
                     ON t.category_id = c.id
                     AND c.user_id = #{userId}
                     AND c.soft_deleted = FALSE
-                WHERE t.user_id = #{userId}
-                AND t.type = #{txnType}::transaction_type
-                AND t.soft_deleted = FALSE
-                ORDER BY t.amount DESC
-                LIMIT #{limit}
-            """)
-    List<TransactionRes> getTopTransactions(Long userId, TransactionType txnType, int limit);
-
-
-    @Select("""
-            SELECT
-                 COALESCE(SUM(
-                     CASE
-                         WHEN type = 'INCOME' AND to_wallet_id = #{walletId}
-                             THEN amount
-                         WHEN type = 'EXPENSE' AND from_wallet_id = #{walletId}
-                             THEN -amount
-                         WHEN type = 'TRANSFER' AND to_wallet_id = #{walletId}
-                             THEN amount
-                         WHEN type = 'TRANSFER' AND from_wallet_id = #{walletId}
-                             THEN -amount
-                         ELSE 0
-                     END
-                 ), 0) AS net_balance_change
-             FROM transactions
-             WHERE user_id = #{userId}
-               AND soft_deleted = FALSE
-               AND (
-                     from_wallet_id = #{walletId}
-                     OR to_wallet_id = #{walletId}
-                   );
+                ORDER BY t.type, t.amount DESC
             """)
-    BigDecimal calculateNetBalanceForWallet(Long walletId, Long userId);
-
-
+    List<TransactionRes> getTopTransactions(Long userId, int limit);
 }
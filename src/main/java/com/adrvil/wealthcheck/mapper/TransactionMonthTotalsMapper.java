@@ -0,0 +1,84 @@
+package com.adrvil.wealthcheck.mapper;
+
+import com.adrvil.wealthcheck.enums.TransactionType;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Select;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * transaction_month_totals, see db/004. The per-transaction writes in
+ * TransactionMapper.xml maintain it inline; this mapper covers the import and
+ * the rebuild. Writers hold the user's lock shared and the rebuild holds it
+ * exclusive, so a rebuild never overwrites a delta it could not see.
+ */
+public interface TransactionMonthTotalsMapper {
+
+    @Select("""
+            SELECT 1 FROM pg_advisory_xact_lock_shared(hashtextextended('transaction_month_totals:' || #{userId}, 0))
+            """)
+    int lockShared(Long userId);
+
+    @Select("""
+            SELECT 1 FROM pg_advisory_xact_lock(hashtextextended('transaction_month_totals:' || #{userId}, 0))
+            """)
+    int lockExclusive(Long userId);
+
+    @Insert("""
+            INSERT INTO transaction_month_totals (user_id, month, type, category_id, total, txn_count)
+            VALUES (#{userId}, #{month}, #{type}::transaction_type, #{categoryId}, #{total}, #{txnCount})
+            ON CONFLICT (user_id, month, type, category_id) DO UPDATE
+            SET total = transaction_month_totals.total + EXCLUDED.total,
+                txn_count = transaction_month_totals.txn_count + EXCLUDED.txn_count
+            """)
+    void applyDelta(Long userId, LocalDate month, TransactionType type, Long categoryId, BigDecimal total, int txnCount);
+
+    // Held by the rebuild, so only one node runs it at a time
+    @Select("""
+            SELECT pg_try_advisory_xact_lock(hashtextextended('transaction_month_totals', 0))
+            """)
+    boolean tryLockRebuild();
+
+    // Recomputes the user's rows from transactions; returns how many rows were
+    // wrong or missing (inserted/updated) or stale (deleted). Call under lockExclusive.
+    @Options(flushCache = Options.FlushCachePolicy.TRUE)
+    @Select("""
+            WITH actual AS (
+                SELECT
+                    DATE_TRUNC('month', transaction_date AT TIME ZONE 'Asia/Manila')::date AS month,
+                    type,
+                    category_id,
+                    SUM(amount) AS total,
+                    COUNT(*) AS txn_count
+                FROM transactions
+                WHERE user_id = #{userId}
+                    AND type IN ('INCOME', 'EXPENSE')
+                    AND category_id IS NOT NULL
+                    AND soft_deleted = FALSE
+                GROUP BY 1, 2, 3
+            ),
+            removed AS (
+                DELETE FROM transaction_month_totals m
+                WHERE m.user_id = #{userId}
+                    AND NOT EXISTS (
+                        SELECT 1 FROM actual a
+                        WHERE a.month = m.month AND a.type = m.type AND a.category_id = m.category_id)
+                RETURNING 1
+            ),
+            repaired AS (
+                INSERT INTO transaction_month_totals (user_id, month, type, category_id, total, txn_count)
+                SELECT #{userId}, month, type, category_id, total, txn_count
+                FROM actual
+                ON CONFLICT (user_id, month, type, category_id) DO UPDATE
+                SET total = EXCLUDED.total,
+                    txn_count = EXCLUDED.txn_count
+                WHERE (transaction_month_totals.total, transaction_month_totals.txn_count)
+                    IS DISTINCT FROM (EXCLUDED.total, EXCLUDED.txn_count)
+                RETURNING 1
+            )
+            SELECT (SELECT COUNT(*) FROM removed) + (SELECT COUNT(*) FROM repaired)
+            """)
+    int rebuildForUser(Long userId);
+}
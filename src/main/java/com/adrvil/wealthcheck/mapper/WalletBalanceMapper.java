@@ -0,0 +1,170 @@
+package com.adrvil.wealthcheck.mapper;
+
+import com.adrvil.wealthcheck.dto.response.WalletBalancePointRes;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Select;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * wallet_balance_daily, see db/006. The per-transaction writes in
+ * TransactionMapper.xml maintain it inline; this mapper covers the import,
+ * direct balance edits, the backfill and the reads. A wallet's balance as of a day sums at
+ * most one row per active day, whatever the number of transactions.
+ */
+public interface WalletBalanceMapper {
+
+    @Insert("""
+            INSERT INTO wallet_balance_daily (wallet_id, day, user_id, change)
+            VALUES (#{walletId}, #{day}, #{userId}, #{change})
+            ON CONFLICT (wallet_id, day) DO UPDATE
+            SET change = wallet_balance_daily.change + EXCLUDED.change
+            """)
+    void applyDelta(Long walletId, Long userId, LocalDate day, BigDecimal change);
+
+    // Held by the backfill, so only one node runs it at a time
+    @Select("""
+            SELECT pg_try_advisory_xact_lock(hashtextextended('wallet_balance_daily', 0))
+            """)
+    boolean tryLockBackfill();
+
+    // Books what the wallet holds beyond the recorded changes (opening balance,
+    // balance edits) on #{today}; returns 1 if there was a difference
+    @Insert("""
+            INSERT INTO wallet_balance_daily (wallet_id, day, user_id, change)
+            SELECT w.id, #{today}, w.user_id,
+                   w.balance - (SELECT COALESCE(SUM(change), 0)
+                                FROM wallet_balance_daily
+                                WHERE wallet_id = w.id)
+            FROM wallet w
+            WHERE w.id = #{walletId}
+                AND w.user_id = #{userId}
+                AND w.soft_deleted = FALSE
+                AND w.balance <> (SELECT COALESCE(SUM(change), 0)
+                                  FROM wallet_balance_daily
+                                  WHERE wallet_id = w.id)
+            ON CONFLICT (wallet_id, day) DO UPDATE
+            SET change = wallet_balance_daily.change + EXCLUDED.change
+            """)
+    int reconcile(Long walletId, Long userId, LocalDate today);
+
+    // Active wallets whose rows do not add up to their balance. Inline writes and
+    // reconcile keep the sum exact, so these are wallets never backfilled (or drifted).
+    @Select("""
+            SELECT w.id
+            FROM wallet w
+            WHERE w.soft_deleted = FALSE
+                AND w.balance <> (SELECT COALESCE(SUM(change), 0)
+                                  FROM wallet_balance_daily
+                                  WHERE wallet_id = w.id)
+            ORDER BY w.id
+            """)
+    List<Long> findIdsToBackfill();
+
+    // Replaces the wallet's rows with history rebuilt from transactions; what it holds
+    // beyond its transactions is booked on the day it was created. A no-op unless the
+    // rows still miss the balance, so it is safe to repeat. Call with the wallet
+    // locked (WalletMapper.lockById) so no write lands between the check and the rows.
+    @Options(flushCache = Options.FlushCachePolicy.TRUE)
+    @Select("""
+            WITH target AS (
+                SELECT w.id, w.user_id, w.balance, (w.created_at AT TIME ZONE 'Asia/Manila')::date AS created
+                FROM wallet w
+                WHERE w.id = #{walletId}
+                    AND w.soft_deleted = FALSE
+                    AND w.balance <> (SELECT COALESCE(SUM(change), 0)
+                                      FROM wallet_balance_daily
+                                      WHERE wallet_id = w.id)
+            ),
+            legs AS (
+                SELECT (t.transaction_date AT TIME ZONE 'Asia/Manila')::date AS day,
+                       CASE WHEN t.from_wallet_id = w.id THEN -t.amount ELSE t.amount END AS change
+                FROM target w
+                JOIN transactions t ON t.user_id = w.user_id
+                    AND (t.from_wallet_id = w.id OR t.to_wallet_id = w.id)
+                    AND t.soft_deleted = FALSE
+            ),
+            daily AS (
+                SELECT day, SUM(change) AS change
+                FROM legs
+                GROUP BY day
+            ),
+            history AS (
+                SELECT day, SUM(change) AS change
+                FROM (
+                    SELECT day, change FROM daily
+                    UNION ALL
+                    SELECT LEAST(w.created, (SELECT MIN(day) FROM daily)),
+                           w.balance - (SELECT COALESCE(SUM(change), 0) FROM daily)
+                    FROM target w
+                ) c
+                GROUP BY day
+                HAVING SUM(change) <> 0
+            ),
+            removed AS (
+                DELETE FROM wallet_balance_daily b
+                USING target w
+                WHERE b.wallet_id = w.id
+                    AND NOT EXISTS (SELECT 1 FROM history h WHERE h.day = b.day)
+            ),
+            written AS (
+                INSERT INTO wallet_balance_daily (wallet_id, day, user_id, change)
+                SELECT w.id, h.day, w.user_id, h.change
+                FROM target w, history h
+                ORDER BY h.day
+                ON CONFLICT (wallet_id, day) DO UPDATE
+                SET change = EXCLUDED.change
+                RETURNING 1
+            )
+            SELECT COUNT(*) FROM written
+            """)
+    int backfill(Long walletId);
+
+    @Select("""
+            SELECT COALESCE(SUM(change), 0)
+            FROM wallet_balance_daily
+            WHERE wallet_id = #{walletId}
+                AND user_id = #{userId}
+                AND day <= #{asOf}
+            """)
+    BigDecimal getBalanceAsOf(Long walletId, Long userId, LocalDate asOf);
+
+    // Closing balance per bucket of #{unit} (day, week or month) in [from, to],
+    // labelled with the bucket's first day
+    @Select("""
+            WITH opening AS (
+                SELECT COALESCE(SUM(change), 0) AS balance
+                FROM wallet_balance_daily
+                WHERE wallet_id = #{walletId}
+                    AND user_id = #{userId}
+                    AND day < #{from}
+            ),
+            changes AS (
+                SELECT DATE_TRUNC(#{unit}, day::timestamp)::date AS bucket, SUM(change) AS change
+                FROM wallet_balance_daily
+                WHERE wallet_id = #{walletId}
+                    AND user_id = #{userId}
+                    AND day >= #{from}
+                    AND day <= #{to}
+                GROUP BY 1
+            )
+            SELECT
+                s.bucket::date AS date,
+                (SELECT balance FROM opening) + SUM(COALESCE(c.change, 0)) OVER (ORDER BY s.bucket) AS balance
+            FROM generate_series(DATE_TRUNC(#{unit}, #{from}::timestamp), #{to}::timestamp, ('1 ' || #{unit})::interval) AS s(bucket)
+            LEFT JOIN changes c ON c.bucket = s.bucket::date
+            ORDER BY s.bucket
+            """)
+    List<WalletBalancePointRes> getHistory(Long walletId, Long userId, LocalDate from, LocalDate to, String unit);
+
+    @Delete("""
+            DELETE FROM wallet_balance_daily
+            WHERE wallet_id = #{walletId}
+                AND user_id = #{userId}
+            """)
+    int deleteForWallet(Long walletId, Long userId);
+}
@@ -0,0 +1,152 @@
+package com.adrvil.wealthcheck.mapper;
+
+import com.adrvil.wealthcheck.dto.WalletLedgerDriftDto;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Select;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * wallet_ledger and wallet_checkpoint, see db/007. The per-transaction writes
+ * in TransactionMapper.xml append inline; this mapper covers the import,
+ * wallet edits, the seed, the checkpointer and the reads. A ledger balance is
+ * the checkpoint plus the rows appended from its through_xid on.
+ */
+public interface WalletLedgerMapper {
+
+    @Insert("""
+            INSERT INTO wallet_ledger (wallet_id, user_id, transaction_id, change)
+            VALUES (#{walletId}, #{userId}, #{transactionId}, #{change})
+            """)
+    void append(Long walletId, Long userId, Long transactionId, BigDecimal change);
+
+    // Held by the seed, so only one node runs it at a time
+    @Select("""
+            SELECT pg_try_advisory_xact_lock(hashtextextended('wallet_ledger', 0))
+            """)
+    boolean tryLockSeed();
+
+    // Appends what the wallet holds beyond its ledger balance (a balance edit, or
+    // the opening row when seeding); a deleted wallet holds what its live
+    // transactions add up to. Call with the wallet row locked (WalletMapper.lockById).
+    @Insert("""
+            INSERT INTO wallet_ledger (wallet_id, user_id, transaction_id, change)
+            SELECT w.id, w.user_id, NULL, target.balance - ledger.balance
+            FROM wallet w
+            CROSS JOIN LATERAL (
+                SELECT CASE WHEN NOT w.soft_deleted THEN w.balance
+                       ELSE (SELECT COALESCE(SUM(CASE WHEN t.to_wallet_id = w.id THEN t.amount ELSE 0 END
+                                               - CASE WHEN t.from_wallet_id = w.id THEN t.amount ELSE 0 END), 0)
+                             FROM transactions t
+                             WHERE t.user_id = w.user_id
+                                 AND (t.from_wallet_id = w.id OR t.to_wallet_id = w.id)
+                                 AND t.soft_deleted = FALSE)
+                       END AS balance
+            ) target
+            CROSS JOIN LATERAL (
+                SELECT COALESCE(c.balance, 0) + COALESCE((
+                    SELECT SUM(l.change)
+                    FROM wallet_ledger l
+                    WHERE l.wallet_id = w.id
+                        AND l.xid >= COALESCE(c.through_xid, '0'::xid8)), 0) AS balance
+                FROM (SELECT 1) one
+                LEFT JOIN wallet_checkpoint c ON c.wallet_id = w.id
+            ) ledger
+            WHERE w.id = #{walletId}
+                AND target.balance <> ledger.balance
+            """)
+    int appendAdjustment(Long walletId);
+
+    @Select("""
+            SELECT COALESCE(c.balance, 0) + COALESCE((
+                SELECT SUM(l.change)
+                FROM wallet_ledger l
+                WHERE l.wallet_id = #{walletId}
+                    AND l.user_id = #{userId}
+                    AND l.xid >= COALESCE(c.through_xid, '0'::xid8)), 0)
+            FROM (SELECT 1) one
+            LEFT JOIN wallet_checkpoint c ON c.wallet_id = #{walletId} AND c.user_id = #{userId}
+            """)
+    BigDecimal getBalance(Long walletId, Long userId);
+
+    // false if another node is checkpointing; the lock is held to the end of the transaction
+    @Select("""
+            SELECT pg_try_advisory_xact_lock(hashtextextended('wallet_checkpoint', 0))
+            """)
+    boolean tryLockCheckpoint();
+
+    // Folds every row written by a finished transaction (xid below the oldest one
+    // still running) into its wallet's checkpoint; returns the wallets moved on.
+    // Rows of transactions still running stay in the tail, so nothing that
+    // commits later can land behind through_xid. Call under tryLockCheckpoint.
+    @Insert("""
+            WITH horizon AS (
+                SELECT pg_snapshot_xmin(pg_current_snapshot()) AS xid
+            ),
+            folded AS (
+                SELECT w.id AS wallet_id, w.user_id, tail.change
+                FROM wallet w
+                LEFT JOIN wallet_checkpoint c ON c.wallet_id = w.id
+                CROSS JOIN LATERAL (
+                    SELECT SUM(l.change) AS change, COUNT(*) AS row_count
+                    FROM wallet_ledger l
+                    WHERE l.wallet_id = w.id
+                        AND l.xid >= COALESCE(c.through_xid, '0'::xid8)
+                        AND l.xid < (SELECT xid FROM horizon)
+                ) tail
+                WHERE tail.row_count > 0
+            )
+            INSERT INTO wallet_checkpoint (wallet_id, user_id, balance, through_xid)
+            SELECT f.wallet_id, f.user_id, f.change, h.xid
+            FROM folded f, horizon h
+            ON CONFLICT (wallet_id) DO UPDATE
+            SET balance = wallet_checkpoint.balance + EXCLUDED.balance,
+                through_xid = EXCLUDED.through_xid,
+                updated_at = NOW()
+            """)
+    int checkpoint();
+
+    // Wallets whose ledger balance disagrees with what they hold: the balance column,
+    // or for a deleted wallet what its live transactions add up to (as in
+    // appendAdjustment). Covers wallets never seeded, deleted or not.
+    @Select("""
+            SELECT w.id AS walletId, w.user_id AS userId, target.balance, ledger.balance AS ledgerBalance
+            FROM wallet w
+            LEFT JOIN wallet_checkpoint c ON c.wallet_id = w.id
+            CROSS JOIN LATERAL (
+                SELECT CASE WHEN NOT w.soft_deleted THEN w.balance
+                       ELSE (SELECT COALESCE(SUM(CASE WHEN t.to_wallet_id = w.id THEN t.amount ELSE 0 END
+                                               - CASE WHEN t.from_wallet_id = w.id THEN t.amount ELSE 0 END), 0)
+                             FROM transactions t
+                             WHERE t.user_id = w.user_id
+                                 AND (t.from_wallet_id = w.id OR t.to_wallet_id = w.id)
+                                 AND t.soft_deleted = FALSE)
+                       END AS balance
+            ) target
+            CROSS JOIN LATERAL (
+                SELECT COALESCE(c.balance, 0) + COALESCE((
+                    SELECT SUM(l.change)
+                    FROM wallet_ledger l
+                    WHERE l.wallet_id = w.id
+                        AND l.xid >= COALESCE(c.through_xid, '0'::xid8)), 0) AS balance
+            ) ledger
+            WHERE target.balance <> ledger.balance
+            ORDER BY w.id
+            """)
+    List<WalletLedgerDriftDto> findDrift();
+
+    // For a permanently deleted wallet: its rows would otherwise stay in the checkpointer's scan
+    @Delete("""
+            WITH checkpoint AS (
+                DELETE FROM wallet_checkpoint
+                WHERE wallet_id = #{walletId}
+                    AND user_id = #{userId}
+            )
+            DELETE FROM wallet_ledger
+            WHERE wallet_id = #{walletId}
+                AND user_id = #{userId}
+            """)
+    int deleteForWallet(Long walletId, Long userId);
+}
@@ -97,6 +97,17 @@ public interface WalletMapper {
             """)
     int increaseBalance(Long userId, Long walletId, BigDecimal amount);
 
+    // Signed delta in one statement; a debit that would go below zero updates nothing
+    @Update("""
+                UPDATE wallet
+                SET balance = balance + #{delta}, updated_at = NOW()
+                WHERE id = #{walletId}
+                    AND user_id = #{userId}
+                    AND balance + #{delta} >= 0
+                    AND soft_deleted = FALSE
+            """)
+    int applyBalanceDelta(Long userId, Long walletId, BigDecimal delta);
+
     @Update("""
             UPDATE wallet
             SET soft_deleted = TRUE, updated_at = NOW()
@@ -123,4 +134,11 @@ public interface WalletMapper {
                 AND soft_deleted = true
             """)
     int permanentDeleteWallet(Long userId, Long id);
+
+    @Select("SELECT id FROM wallet WHERE id = #{id} FOR UPDATE")
+    Long lockById(Long id);
+
+    // Ascending id, the order every write statement locks wallets in
+    @Select("SELECT id FROM wallet WHERE user_id = #{userId} ORDER BY id FOR UPDATE")
+    List<Long> lockAllByUserId(Long userId);
 }
@@ -2,6 +2,7 @@ package com.adrvil.wealthcheck.service;
 
 import com.adrvil.wealthcheck.common.exception.AccountNotAuthenticatedException;
 import com.adrvil.wealthcheck.common.exception.ResourceNotFound;
+import com.adrvil.wealthcheck.config.AccountPrincipal;
 import com.adrvil.wealthcheck.dto.GoogleUserDto;
 import com.adrvil.wealthcheck.entity.AccountEntity;
 import com.adrvil.wealthcheck.mapper.AccountMapper;
@@ -10,6 +11,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import java.util.Date;
 
@@ -18,6 +21,8 @@ import java.util.Date;
 @Slf4j
 public class AccountService {
 
+    private static final String ACCOUNT_ID_ATTRIBUTE = AccountService.class.getName() + ".accountId";
+
     private final AccountMapper accountMapper;
 
     public AccountEntity createAccount(GoogleUserDto googleUserDto) {
@@ -55,6 +60,17 @@ public class AccountService {
             throw new AccountNotAuthenticatedException("Account not authenticated");
         }
 
+        if (auth.getPrincipal() instanceof AccountPrincipal principal && principal.id() != null) {
+            return principal.id();
+        }
+
+        // Tokens issued before the id claim existed: resolve by email once per request
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes != null
+                && requestAttributes.getAttribute(ACCOUNT_ID_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof Long cachedId) {
+            return cachedId;
+        }
+
         String email = auth.getName();
         log.debug("Looking up user ID for authenticated email: {}", email);
 
@@ -65,6 +81,10 @@ public class AccountService {
             throw new ResourceNotFound("Account");
         }
 
+        if (requestAttributes != null) {
+            requestAttributes.setAttribute(ACCOUNT_ID_ATTRIBUTE, userId, RequestAttributes.SCOPE_REQUEST);
+        }
+
         log.debug("Found user ID: {} for email: {}", userId, email);
         return userId;
     }
@@ -9,6 +9,7 @@ import com.adrvil.wealthcheck.enums.CacheName;
 import com.adrvil.wealthcheck.enums.CategoryType;
 import com.adrvil.wealthcheck.mapper.CategoryMapper;
 import com.adrvil.wealthcheck.utils.CacheUtil;
+import com.fasterxml.jackson.core.type.TypeReference;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -20,6 +21,7 @@ import java.util.Optional;
 @Slf4j
 @RequiredArgsConstructor
 public class CategoryService {
+    private static final TypeReference<List<CategoryRes>> CATEGORY_LIST = new TypeReference<>() {};
 
     private final AccountService accountService;
     private final CategoryMapper categoryMapper;
@@ -33,8 +35,10 @@ public class CategoryService {
         CategoryEntity categoryEntity = CategoryDtoMapper.toEntity(req, userId);
         categoryMapper.insertCategory(categoryEntity);
 
-        cacheUtil.evict(CacheName.USER_CATEGORIES.getValue(), String.valueOf(userId));
-        cacheUtil.evictOverviewCaches(userId);
+        cacheUtil.evictionBatch()
+                .evict(CacheName.USER_CATEGORIES, String.valueOf(userId))
+                .userCaches(userId)
+                .flush();
 
         log.info("Category created successfully - ID: {}, User: {}, Name: {}, Type: {}",
                 categoryEntity.getId(), userId, req.name(), req.type());
@@ -54,9 +58,11 @@ public class CategoryService {
             throw new ResourceNotFound("Category");
         }
 
-        cacheUtil.evict(CacheName.CATEGORY.getValue(), userId + ":" + id);
-        cacheUtil.evict(CacheName.USER_CATEGORIES.getValue(), String.valueOf(userId));
-        cacheUtil.evictOverviewCaches(userId);
+        cacheUtil.evictionBatch()
+                .evict(CacheName.CATEGORY, userId + ":" + id)
+                .evict(CacheName.USER_CATEGORIES, String.valueOf(userId))
+                .userCaches(userId)
+                .flush();
 
         log.info("Category updated successfully - ID: {}, User: {}", id, userId);
 
@@ -95,7 +101,7 @@ public class CategoryService {
         Long userId = accountService.getCurrentAccountIdOrThrow();
         String cacheKey = userId + ":" + id;
 
-        CategoryRes cached = cacheUtil.get(CacheName.CATEGORY.getValue(), cacheKey);
+        CategoryRes cached = cacheUtil.get(CacheName.CATEGORY.getValue(), cacheKey, CategoryRes.class);
         if (cached != null) {
             return cached;
         }
@@ -120,7 +126,7 @@ public class CategoryService {
     public List<CategoryRes> getAllCategories() {
         Long userId = accountService.getCurrentAccountIdOrThrow();
 
-        List<CategoryRes> cachedList = cacheUtil.get(CacheName.USER_CATEGORIES.getValue(), String.valueOf(userId));
+        List<CategoryRes> cachedList = cacheUtil.get(CacheName.USER_CATEGORIES.getValue(), String.valueOf(userId), CATEGORY_LIST);
 
         if (cachedList != null) return cachedList;
 
@@ -141,7 +147,7 @@ public class CategoryService {
 
     public List<CategoryRes> getAllSoftDeletedCategories() {
         Long userId = accountService.getCurrentAccountIdOrThrow();
-        List<CategoryRes> cachedList = cacheUtil.get(CacheName.DELETED_USER_CATEGORIES.getValue(), String.valueOf(userId));
+        List<CategoryRes> cachedList = cacheUtil.get(CacheName.DELETED_USER_CATEGORIES.getValue(), String.valueOf(userId), CATEGORY_LIST);
 
         if (cachedList != null) return cachedList;
 
@@ -249,9 +255,11 @@ public class CategoryService {
     // helper functions
 
     private void evictCategoryCaches(Long userId, Long categoryId) {
-        cacheUtil.evict(CacheName.CATEGORY.getValue(), userId + ":" + categoryId);
-        cacheUtil.evict(CacheName.USER_CATEGORIES.getValue(), String.valueOf(userId));
-        cacheUtil.evict(CacheName.DELETED_USER_CATEGORIES.getValue(), String.valueOf(userId));
-        cacheUtil.evictOverviewCaches(userId);
+        cacheUtil.evictionBatch()
+                .evict(CacheName.CATEGORY, userId + ":" + categoryId)
+                .evict(CacheName.USER_CATEGORIES, String.valueOf(userId))
+                .evict(CacheName.DELETED_USER_CATEGORIES, String.valueOf(userId))
+                .userCaches(userId)
+                .flush();
     }
 }
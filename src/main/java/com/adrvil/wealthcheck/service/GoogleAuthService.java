@@ -73,7 +73,7 @@ public class GoogleAuthService {
         claims.put("name", account.getName());
         claims.put("avatarUrl", account.getAvatarUrl());
 
-        return jwtService.generateTokenWithClaims(account.getEmail(), claims);
+        return jwtService.generateTokenWithClaims(account.getId(), account.getEmail(), claims);
     }
 
     private String exchangeCodeForToken(String code) throws GoogleAuthException {
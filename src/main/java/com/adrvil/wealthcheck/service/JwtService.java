@@ -1,63 +1,131 @@
 package com.adrvil.wealthcheck.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.Base64;
 import java.util.Date;
+import java.util.HexFormat;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Service
+@Slf4j
+@RequiredArgsConstructor
 public class JwtService {
 
+    public static final String USER_ID_CLAIM = "userId";
+
+    private final MeterRegistry meterRegistry;
+
     @Value("${jwt.secret}")
     private String SECRET_KEY;
 
     @Value("${jwt.expiration}")
     private long EXPIRATION_MS;
 
+    @Value("${jwt.verify-cache.max-size:10000}")
+    private long verifyCacheMaxSize;
+
+    private SecretKey signingKey;
+    private JwtParser parser;
+    private Cache<String, Claims> verifiedTokens;
+    private Timer verifyTimer;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(Base64.getDecoder().decode(SECRET_KEY));
+        parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+
+        // Entries live until the token's own exp claim, so a hit never outlives the token
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifyCacheMaxSize)
+                .expireAfter(Expiry.<String, Claims>creating((digest, claims) ->
+                        Duration.ofMillis(Math.max(0,
+                                claims.getExpiration().getTime() - System.currentTimeMillis()))))
+                .recordStats()
+                .build();
 
-    private SecretKey getSigningKey() {
-        byte[] decodedKey = Base64.getDecoder().decode(SECRET_KEY);
-        return Keys.hmacShaKeyFor(decodedKey);
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt.verified-tokens");
+        verifyTimer = Timer.builder("jwt.verify")
+                .description("Signature verification and parsing of JWTs that missed the verified-token cache")
+                .register(meterRegistry);
     }
 
-    public String generateTokenWithClaims(String email, Map<String, Object> claims) {
+    public String generateTokenWithClaims(Long userId, String email, Map<String, Object> claims) {
         return Jwts.builder()
                 .subject(email)
                 .claims(claims)
+                .claim(USER_ID_CLAIM, userId)
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + EXPIRATION_MS))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
-    public String extractEmail(String token) {
-        return extractAllClaims(token).getSubject();
-    }
+    /**
+     * Verifies the token once and returns its claims, or empty if the token is
+     * invalid or expired. Tokens verified before are served from memory until
+     * their exp claim without re-running the HMAC.
+     */
+    public Optional<Claims> verifyToken(String token) {
+        String digest = digest(token);
+
+        Claims cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
 
-    public boolean isTokenValid(String token) {
+        long start = System.nanoTime();
         try {
-            extractAllClaims(token);
-            return true;
-        } catch (Exception e) {
-            return false;
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            if (claims.getExpiration() == null) {
+                log.debug("Rejecting token without an exp claim");
+                return Optional.empty();
+            }
+            verifiedTokens.put(digest, claims);
+            return Optional.of(claims);
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Token verification failed: {}", e.getMessage());
+            return Optional.empty();
+        } finally {
+            verifyTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
-    public boolean isTokenExpired(String token) {
-        return extractAllClaims(token).getExpiration().before(new Date());
+    public static Long extractUserId(Claims claims) {
+        Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        return userId != null ? userId.longValue() : null;
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 }
@@ -0,0 +1,103 @@
+package com.adrvil.wealthcheck.service;
+
+import com.adrvil.wealthcheck.mapper.AccountMapper;
+import com.adrvil.wealthcheck.mapper.NetWorthMapper;
+import com.adrvil.wealthcheck.mapper.WalletMapper;
+import com.adrvil.wealthcheck.utils.AppZone;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Fills net_worth_daily. Transaction writes keep it current; this books the
+ * rest of the difference to the live wallet totals (opening balances, wallet
+ * edits and deletes) once a day, and backfills history from transactions for
+ * users who have none. Both run on one node at a time.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NetWorthSnapshotService {
+    private final NetWorthMapper mapper;
+    private final AccountMapper accountMapper;
+    private final WalletMapper walletMapper;
+    private final PlatformTransactionManager transactionManager;
+
+    // The maintenance lock is held by an outer transaction; each user's work commits on its own
+    private TransactionTemplate lockTemplate;
+    private TransactionTemplate userTemplate;
+
+    @PostConstruct
+    void init() {
+        lockTemplate = new TransactionTemplate(transactionManager);
+        userTemplate = new TransactionTemplate(transactionManager);
+        userTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // Backfill: db/005 creates the table empty. Users are picked by what is booked
+    // for them, not by the table being empty, so writes that land first skip no one.
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        CompletableFuture.runAsync(() -> {
+            try {
+                lockTemplate.executeWithoutResult(status -> {
+                    if (!mapper.tryLockMaintenance()) {
+                        log.info("Net worth backfill skipped, another node holds the lock");
+                        return;
+                    }
+                    LocalDate today = LocalDate.now(AppZone.ZONE);
+                    List<Long> userIds = mapper.findIdsToBackfill(today);
+                    if (userIds.isEmpty()) return;
+                    log.info("Backfilling net worth history for {} users", userIds.size());
+                    int rows = 0;
+                    for (Long userId : userIds) {
+                        Integer written = userTemplate.execute(userStatus -> {
+                            walletMapper.lockAllByUserId(userId);
+                            return mapper.backfill(userId, today);
+                        });
+                        rows += written != null ? written : 0;
+                    }
+                    log.info("Net worth backfill complete. Wrote {} daily rows.", rows);
+                });
+            } catch (Exception e) {
+                log.error("Net worth backfill failed", e);
+            }
+        });
+    }
+
+    // Late in the day, so what is booked lands on the day it happened
+    @Scheduled(cron = "${overview.net-worth.reconcile-cron:0 55 23 * * ?}", zone = AppZone.ID)
+    public void reconcile() {
+        lockTemplate.executeWithoutResult(status -> {
+            // Two nodes reconciling the same user would both book the difference
+            if (!mapper.tryLockMaintenance()) {
+                log.info("Net worth reconcile skipped, another node holds the lock");
+                return;
+            }
+            LocalDate today = LocalDate.now(AppZone.ZONE);
+            int users = 0;
+            int reconciled = 0;
+            for (Long userId : accountMapper.findAllIds()) {
+                try {
+                    Integer booked = userTemplate.execute(userStatus -> mapper.reconcile(userId, today));
+                    reconciled += booked != null ? booked : 0;
+                    users++;
+                } catch (Exception e) {
+                    log.error("Net worth reconcile failed - User: {}", userId, e);
+                }
+            }
+            log.info("Net worth reconcile complete. Checked {} users, booked {} adjustments.", users, reconciled);
+        });
+    }
+}
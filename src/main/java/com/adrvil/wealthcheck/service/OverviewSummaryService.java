@@ -1,5 +1,6 @@
 package com.adrvil.wealthcheck.service;
 
+import com.adrvil.wealthcheck.common.exception.BadRequestException;
 import com.adrvil.wealthcheck.converter.MoneyBudgetDtoMapper;
 import com.adrvil.wealthcheck.converter.MoneyGoalDtoMapper;
 import com.adrvil.wealthcheck.dto.*;
@@ -8,45 +9,137 @@ import com.adrvil.wealthcheck.dto.response.*;
 import com.adrvil.wealthcheck.entity.MoneyBudgetEntity;
 import com.adrvil.wealthcheck.entity.MoneyGoalEntity;
 import com.adrvil.wealthcheck.enums.CacheName;
+import com.adrvil.wealthcheck.enums.HistoryGranularity;
 import com.adrvil.wealthcheck.enums.TransactionType;
+import com.adrvil.wealthcheck.mapper.NetWorthMapper;
 import com.adrvil.wealthcheck.mapper.OverviewSummaryMapper;
 import com.adrvil.wealthcheck.mapper.TransactionMapper;
+import com.adrvil.wealthcheck.utils.AppZone;
 import com.adrvil.wealthcheck.utils.CacheUtil;
+import com.adrvil.wealthcheck.utils.SingleFlight;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
 import org.springframework.stereotype.Service;
 
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
-import java.time.ZoneId;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class OverviewSummaryService {
     private final OverviewSummaryMapper overviewSummaryMapper;
+    private final NetWorthMapper netWorthMapper;
     private final TransactionMapper transactionMapper;
     private final AccountService accountService;
     private final CacheUtil cacheUtil;
     private final ObjectMapper objectMapper;
+    private final SingleFlight singleFlight;
 
-    public CurrentOverviewDto getOverviewSummary() {
+    // Upper bound on points per net worth chart; longer ranges get a coarser granularity
+    @Value("${overview.net-worth.max-points:500}")
+    private int netWorthMaxPoints;
+
+    // Tasks run with the submitting request's SecurityContext, which the widget methods read
+    private final ExecutorService widgetExecutor =
+            new DelegatingSecurityContextExecutorService(Executors.newVirtualThreadPerTaskExecutor());
+
+    private record DashboardWidget(String field, CacheName cacheName, Supplier<byte[]> loader) {
+    }
+
+    // Stops accepting widget loads and waits for the in-flight ones
+    @PreDestroy
+    void shutdown() {
+        widgetExecutor.close();
+    }
+
+    // The endpoints' payloads are cached only as JSON: a hit is written to the response without decoding
+
+    public byte[] getOverviewSummaryJson() {
+        return serialized(CacheName.OVERVIEW_JSON, this::loadOverviewSummary);
+    }
+
+    public byte[] getTopTransactionsJson() {
+        return serialized(CacheName.TOP_TRANSACTIONS_JSON, this::loadTopTransactions);
+    }
+
+    public byte[] getRecentTransactionsJson() {
+        return serialized(CacheName.RECENT_TRANSACTIONS_JSON, this::loadRecentTransactions);
+    }
+
+    public byte[] getDailyNetSnapshotJson() {
+        return serialized(CacheName.DAILY_NET_JSON, this::loadDailyNetSnapshot);
+    }
+
+    public byte[] getTopCategoriesJson() {
+        return serialized(CacheName.TOP_CATEGORIES_JSON, this::loadTopCategories);
+    }
+
+    /**
+     * All dashboard widgets as one JSON object. Cached widgets come from a single
+     * MGET; the rest are computed concurrently on virtual threads, so a cold
+     * dashboard takes as long as its slowest widget rather than the sum.
+     */
+    public byte[] getDashboardJson() {
         Long userId = accountService.getCurrentAccountIdOrThrow();
-        String cacheKey = String.valueOf(userId);
-        log.debug("Getting overview summary for user: {}", userId);
+        String cacheKey = cacheUtil.userKey(userId);
+
+        List<DashboardWidget> widgets = List.of(
+                new DashboardWidget("current", CacheName.OVERVIEW_JSON, this::getOverviewSummaryJson),
+                new DashboardWidget("topTransactions", CacheName.TOP_TRANSACTIONS_JSON, this::getTopTransactionsJson),
+                new DashboardWidget("recentTransactions", CacheName.RECENT_TRANSACTIONS_JSON, this::getRecentTransactionsJson),
+                new DashboardWidget("dailyNetSnapshot", CacheName.DAILY_NET_JSON, this::getDailyNetSnapshotJson),
+                new DashboardWidget("topCategories", CacheName.TOP_CATEGORIES_JSON, this::getTopCategoriesJson),
+                new DashboardWidget("moneyGoal", null, () -> toJson(getMoneyGoal())),
+                new DashboardWidget("moneyBudget", null, () -> toJson(getMoneyBudget()))
+        );
 
-        Object cachedObj = cacheUtil.get(CacheName.OVERVIEW.getValue(), cacheKey);
-        if (cachedObj != null) {
-            log.info("Returning cached overview summary for user: {}", userId);
-            return objectMapper.convertValue(cachedObj, CurrentOverviewDto.class);
+        List<String> cacheNames = widgets.stream()
+                .filter(widget -> widget.cacheName() != null)
+                .map(widget -> widget.cacheName().getValue())
+                .toList();
+        List<Object> cached = cacheUtil.getAll(cacheNames, cacheKey);
+
+        List<Future<byte[]>> payloads = new ArrayList<>();
+        int cachedIndex = 0;
+        for (DashboardWidget widget : widgets) {
+            Object hit = widget.cacheName() != null ? cached.get(cachedIndex++) : null;
+            payloads.add(hit instanceof byte[] bytes
+                    ? CompletableFuture.completedFuture(bytes)
+                    : widgetExecutor.submit(widget.loader()::get));
         }
 
-        BigDecimal totalBalance = overviewSummaryMapper.getTotalBalance(userId);
-        BigDecimal incomeThisMonth = overviewSummaryMapper.getThisMonthIncomeOrExpense(userId, TransactionType.INCOME);
-        BigDecimal expenseThisMonth = overviewSummaryMapper.getThisMonthIncomeOrExpense(userId, TransactionType.EXPENSE);
+        ByteArrayOutputStream json = new ByteArrayOutputStream(4096);
+        json.write('{');
+        for (int i = 0; i < widgets.size(); i++) {
+            if (i > 0) json.write(',');
+            json.writeBytes(('"' + widgets.get(i).field() + "\":").getBytes(StandardCharsets.UTF_8));
+            json.writeBytes(await(payloads.get(i)));
+        }
+        json.write('}');
+
+        log.debug("Dashboard for user: {} - {} of {} cached widgets hit",
+                userId, cached.stream().filter(Objects::nonNull).count(), cacheNames.size());
+        return json.toByteArray();
+    }
+
+    private CurrentOverviewDto loadOverviewSummary(Long userId) {
+        MonthTotalsDto totals = overviewSummaryMapper.getMonthTotals(userId);
+        BigDecimal totalBalance = totals.totalBalance();
+        BigDecimal incomeThisMonth = totals.incomeThisMonth();
+        BigDecimal expenseThisMonth = totals.expenseThisMonth();
         BigDecimal netCashFlow = incomeThisMonth.subtract(expenseThisMonth);
 
         BigDecimal lastMonthBalance = totalBalance.subtract(netCashFlow);
@@ -69,7 +162,7 @@ public class OverviewSummaryService {
         }
 
 
-        int dayOfMonth = LocalDate.now().getDayOfMonth();
+        int dayOfMonth = LocalDate.now(AppZone.ZONE).getDayOfMonth();
 
         BigDecimal dailyAverageSpending = expenseThisMonth
                 .divide(BigDecimal.valueOf(dayOfMonth), 2, RoundingMode.HALF_UP);
@@ -86,133 +179,61 @@ public class OverviewSummaryService {
                 lastMonthBalance
         );
 
-        cacheUtil.put(CacheName.OVERVIEW.getValue(), cacheKey, result);
-
         return result;
     }
 
 
-    public OverviewTopTransactionsDto getTopTransactions() {
-        Long userId = accountService.getCurrentAccountIdOrThrow();
-        String cacheKey = String.valueOf(userId);
-        log.debug("Getting top transactions for user: {}", userId);
-
-        Object cachedObj = cacheUtil.get(CacheName.TOP_TRANSACTIONS.getValue(), cacheKey);
-        if (cachedObj != null) {
-            log.info("Returning cached top transactions for user: {}", userId);
-            return objectMapper.convertValue(cachedObj, OverviewTopTransactionsDto.class);
-        }
-
-//        OverviewTopTransactionsDto cached = cacheUtil.get(CacheName.TOP_TRANSACTIONS.getValue(), cacheKey);
-//        if (cached != null) {
-//            log.info("Returning cached top transactions for user: {}", userId);
-//            return cached;
-//        }
-
+    private OverviewTopTransactionsDto loadTopTransactions(Long userId) {
         int topTxnCount = 3;
 
-        List<TransactionRes> topIncomes = transactionMapper.getTopTransactions(userId, TransactionType.INCOME, topTxnCount);
-        List<TransactionRes> topExpenses = transactionMapper.getTopTransactions(userId, TransactionType.EXPENSE, topTxnCount);
+        List<TransactionRes> topTransactions = transactionMapper.getTopTransactions(userId, topTxnCount);
+        List<TransactionRes> topIncomes = topTransactions.stream().filter(tx -> tx.type() == TransactionType.INCOME).toList();
+        List<TransactionRes> topExpenses = topTransactions.stream().filter(tx -> tx.type() == TransactionType.EXPENSE).toList();
 
         OverviewTopTransactionsDto result = new OverviewTopTransactionsDto(topIncomes, topExpenses);
 
-        cacheUtil.put(CacheName.TOP_TRANSACTIONS.getValue(), cacheKey, result);
-
         return result;
     }
 
-    public List<TransactionRes> getRecentTransactions() {
-        Long userId = accountService.getCurrentAccountIdOrThrow();
-        String cacheKey = String.valueOf(userId);
-        log.debug("Getting recent transactions for user: {}", userId);
-
-        List<TransactionRes> cached = cacheUtil.get(CacheName.RECENT_TRANSACTIONS.getValue(), cacheKey);
-        if (cached != null) {
-            log.info("Returning cached recent transactions for user: {}", userId);
-            return cached;
-        }
-
+    private List<TransactionRes> loadRecentTransactions(Long userId) {
         List<TransactionRes> recentTransactions = transactionMapper.getRecentTransactions(userId, 3);
 
         log.info("Returning {} recent transactions for user {}", recentTransactions.size(), userId);
 
-        cacheUtil.put(CacheName.RECENT_TRANSACTIONS.getValue(), cacheKey, recentTransactions);
-
         return recentTransactions;
     }
 
-    public List<DailyNetRes> getDailyNetSnapshot() {
-        Long userId = accountService.getCurrentAccountIdOrThrow();
-        String cacheKey = String.valueOf(userId);
-        log.info("Getting daily snapshot for user: {}", userId);
-
-        // Check cache first
-        List<DailyNetRes> cached = cacheUtil.get(CacheName.DAILY_NET.getValue(), cacheKey);
-        if (cached != null) {
-            log.info("Returning cached daily net snapshot for user: {}", userId);
-            return cached;
-        }
-
-        LocalDate startDate = LocalDate.now().withDayOfMonth(1);
-        LocalDate endDate = LocalDate.now().withDayOfMonth(LocalDate.now().lengthOfMonth()).plusDays(1);
+    private List<DailyNetRes> loadDailyNetSnapshot(Long userId) {
+        LocalDate today = LocalDate.now(AppZone.ZONE);
+        LocalDate startDate = today.withDayOfMonth(1);
+        LocalDate endDate = today.withDayOfMonth(today.lengthOfMonth()).plusDays(1);
         log.debug("Snapshot period: {} to {}", startDate, endDate.minusDays(1));
 
-        // Fetch transactions
-        List<TransactionForNetDto> transactionForNetDtoList = overviewSummaryMapper.getTransactionForNetList(userId, startDate, endDate);
-        log.debug("Fetched {} transactions for daily net calculation", transactionForNetDtoList.size());
-
-        // 1️⃣ Aggregate net per day
-        Map<LocalDate, BigDecimal> dailyNetMap = new HashMap<>();
-        for (TransactionForNetDto tx : transactionForNetDtoList) {
-            LocalDate date = tx.createdAt().atZone(ZoneId.of("Asia/Manila")).toLocalDate();
-            BigDecimal amount = tx.type() == TransactionType.INCOME ? tx.amount() : tx.amount().negate();
-            dailyNetMap.put(date, dailyNetMap.getOrDefault(date, BigDecimal.ZERO).add(amount));
-            log.trace("Processed transaction for {}: {} (Type: {})", date, amount, tx.type());
-        }
-
-        // 2️⃣ Build daily list with cumulative total
-        List<DailyNetRes> dailyNetResList = new ArrayList<>();
-        BigDecimal runningTotal = BigDecimal.ZERO;
-        LocalDate today = LocalDate.now();
-        LocalDate current = startDate;
-
-        while (current.isBefore(endDate)) {
-            if (current.isAfter(today)) {
-                dailyNetResList.add(new DailyNetRes(current, null));
-            } else {
-                BigDecimal dailyNet = dailyNetMap.getOrDefault(current, BigDecimal.ZERO);
-                runningTotal = runningTotal.add(dailyNet);
-                dailyNetResList.add(new DailyNetRes(current, runningTotal));
-            }
-
-            current = current.plusDays(1);
-        }
-
-        // Cache result
-        cacheUtil.put(CacheName.DAILY_NET.getValue(), cacheKey, dailyNetResList);
-        log.info("Cached cumulative daily net snapshot for user: {}", userId);
+        List<DailyNetRes> dailyNetResList = overviewSummaryMapper.getDailyNetSnapshot(userId, startDate, endDate, today);
+        log.debug("Fetched {} days for daily net snapshot", dailyNetResList.size());
 
         return dailyNetResList;
     }
 
 
-    public TopCategoriesRes getTopCategories() {
+    public NetWorthHistoryRes getNetWorthHistory(LocalDate from, LocalDate to, HistoryGranularity requested) {
         Long userId = accountService.getCurrentAccountIdOrThrow();
-        String cacheKey = String.valueOf(userId);
-        log.debug("Getting top categories for user: {}", userId);
-
-        Object cachedObj = cacheUtil.get(CacheName.TOP_CATEGORIES.getValue(), cacheKey);
-        if (cachedObj != null) {
-            log.debug("Returning cached top categories for user: {}", userId);
-            return objectMapper.convertValue(cachedObj, TopCategoriesRes.class);
+        LocalDate today = LocalDate.now(AppZone.ZONE);
+        LocalDate end = to.isAfter(today) ? today : to;
+        if (from.isAfter(end)) {
+            throw new BadRequestException("from must not be after to or today");
         }
 
-        LocalDate startDate = LocalDate.now().withDayOfMonth(1);
-        LocalDate endDate = LocalDate.now().withDayOfMonth(LocalDate.now().lengthOfMonth()).plusDays(1);
-        log.debug("Top categories period: {} to {}", startDate, endDate.minusDays(1));
+        HistoryGranularity granularity = requested.fitting(from, end, netWorthMaxPoints);
+        log.debug("Getting net worth history for user: {}, {} to {} by {}", userId, from, end, granularity.getValue());
+
+        List<NetWorthPointRes> points = netWorthMapper.getHistory(userId, from, end, granularity.getValue(), today);
+        return new NetWorthHistoryRes(from, end, granularity.getValue(), points);
+    }
 
-        List<CategoryPieRes> topIncomeCategories = overviewSummaryMapper.getTopCategories(userId, TransactionType.INCOME, startDate, endDate);
-        List<CategoryPieRes> topExpenseCategories = overviewSummaryMapper.getTopCategories(userId, TransactionType.EXPENSE, startDate, endDate);
+    private TopCategoriesRes loadTopCategories(Long userId) {
+        List<CategoryPieRes> topIncomeCategories = overviewSummaryMapper.getTopCategories(userId, TransactionType.INCOME);
+        List<CategoryPieRes> topExpenseCategories = overviewSummaryMapper.getTopCategories(userId, TransactionType.EXPENSE);
 
         List<CategoryPieRes> finalTopIncome;
         List<CategoryPieRes> finalTopExpense;
@@ -230,13 +251,12 @@ public class OverviewSummaryService {
         }
 
         TopCategoriesRes result = new TopCategoriesRes(finalTopIncome, finalTopExpense);
-        cacheUtil.put(CacheName.TOP_CATEGORIES.getValue(), cacheKey, result);
         return result;
     }
 
     public Optional<MoneyGoalRes> getMoneyGoal() {
         Long userId = accountService.getCurrentAccountIdOrThrow();
-//        String cacheKey = String.valueOf(userId);
+//        String cacheKey = cacheUtil.userKey(userId);
 //        String cacheName = CacheName.MONEY_GOAL.getValue();
         log.debug("Getting money goal for user: {}", userId);
 
@@ -252,7 +272,7 @@ public class OverviewSummaryService {
             return Optional.empty();
         }
 
-        BigDecimal currentBal = overviewSummaryMapper.getTotalBalance(userId);
+        BigDecimal currentBal = overviewSummaryMapper.getMonthTotals(userId).totalBalance();
         MoneyGoalRes finalRes = new MoneyGoalRes(
                 result.get().getName(),
                 result.get().getAmount(),
@@ -282,7 +302,7 @@ public class OverviewSummaryService {
 
         Optional<MoneyGoalEntity> moneyGoalEntityOpt = overviewSummaryMapper.getMoneyGoalByUserId(userId);
         return moneyGoalEntityOpt.map(moneyGoalEntity -> MoneyGoalDtoMapper.
-                toDto(moneyGoalEntity, overviewSummaryMapper.getTotalBalance(userId)));
+                toDto(moneyGoalEntity, overviewSummaryMapper.getMonthTotals(userId).totalBalance()));
 
     }
 
@@ -304,13 +324,13 @@ public class OverviewSummaryService {
 
         Optional<MoneyBudgetEntity> entityOptional = overviewSummaryMapper.getMoneyBudgetByUserId(userId);
         return entityOptional.map(moneyBudgetEntity -> MoneyBudgetDtoMapper.
-                toDto(moneyBudgetEntity, overviewSummaryMapper.getThisMonthIncomeOrExpense(userId, TransactionType.EXPENSE)));
+                toDto(moneyBudgetEntity, overviewSummaryMapper.getMonthTotals(userId).expenseThisMonth()));
 
     }
 
     public Optional<MoneyBudgetRes> getMoneyBudget() {
         Long userId = accountService.getCurrentAccountIdOrThrow();
-//        String cacheKey = String.valueOf(userId);
+//        String cacheKey = cacheUtil.userKey(userId);
 //        String cacheName = CacheName.MONEY_GOAL.getValue();
         log.debug("Getting money budget for user: {}", userId);
 
@@ -326,7 +346,7 @@ public class OverviewSummaryService {
             return Optional.empty();
         }
 
-        BigDecimal spentAmount = overviewSummaryMapper.getThisMonthIncomeOrExpense(userId, TransactionType.EXPENSE);
+        BigDecimal spentAmount = overviewSummaryMapper.getMonthTotals(userId).expenseThisMonth();
         MoneyBudgetRes finalRes = new MoneyBudgetRes(
                 result.get().getName(),
                 result.get().getAmount(),
@@ -341,6 +361,58 @@ public class OverviewSummaryService {
 
 //    HELPER METHODS
 
+    /**
+     * Returns the user's payload as the JSON the application's ObjectMapper writes
+     * for it, cached under the user's generation.
+     */
+    private byte[] serialized(CacheName cacheName, Function<Long, ?> loader) {
+        Long userId = accountService.getCurrentAccountIdOrThrow();
+        String cacheKey = cacheUtil.userKey(userId);
+
+        byte[] cached = cacheUtil.get(cacheName.getValue(), cacheKey, byte[].class);
+        if (cached != null) {
+            log.debug("Returning cached {} payload for user: {}", cacheName.getValue(), userId);
+            return cached;
+        }
+
+        return singleFlight.execute(flightKey(cacheName, cacheKey),
+                () -> cacheUtil.get(cacheName.getValue(), cacheKey, byte[].class),
+                () -> {
+                    try {
+                        byte[] json = objectMapper.writeValueAsBytes(loader.apply(userId));
+                        cacheUtil.put(cacheName.getValue(), cacheKey, json);
+                        return json;
+                    } catch (JsonProcessingException e) {
+                        throw new IllegalStateException("Could not serialize " + cacheName.getValue() + " payload", e);
+                    }
+                });
+    }
+
+    private byte[] toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize dashboard widget", e);
+        }
+    }
+
+    private static byte[] await(Future<byte[]> payload) {
+        try {
+            return payload.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new IllegalStateException("Dashboard widget failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while building dashboard", e);
+        }
+    }
+
+    // Concurrent misses for the same cache, user and generation share one computation
+    private static String flightKey(CacheName cacheName, String cacheKey) {
+        return cacheName.getValue() + "::" + cacheKey;
+    }
+
     private List<CategoryPieRes> reduceTopCategories(List<CategoryPieRes> categories) {
         List<CategoryPieRes> top3 = new ArrayList<>(categories.subList(0, 3));
         BigDecimal othersAmount = categories.subList(3, categories.size())
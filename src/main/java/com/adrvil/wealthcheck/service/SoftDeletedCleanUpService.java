@@ -1,6 +1,7 @@
 package com.adrvil.wealthcheck.service;
 
 import com.adrvil.wealthcheck.mapper.SoftDeletedCleanUpMapper;
+import com.adrvil.wealthcheck.utils.AppZone;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -14,7 +15,7 @@ import java.util.concurrent.CompletableFuture;
 public class SoftDeletedCleanUpService {
     private final SoftDeletedCleanUpMapper mapper;
 
-    @Scheduled(cron = "0 0 3 * * ?", zone = "Asia/Manila")
+    @Scheduled(cron = "0 0 3 * * ?", zone = AppZone.ID)
     public void cleanSoftDeleted() {
         CompletableFuture.runAsync(() -> {
             try {
@@ -0,0 +1,116 @@
+package com.adrvil.wealthcheck.service;
+
+import com.adrvil.wealthcheck.dto.TransactionFilterDto;
+import com.adrvil.wealthcheck.dto.TransactionSearchDto;
+import com.adrvil.wealthcheck.dto.response.TransactionRes;
+import com.adrvil.wealthcheck.enums.TransactionFileFormat;
+import com.adrvil.wealthcheck.mapper.TransactionMapper;
+import com.adrvil.wealthcheck.utils.CsvWriter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class TransactionExportService {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int FLUSH_EVERY_ROWS = 1000;
+
+    private final AccountService accountService;
+    private final TransactionMapper transactionMapper;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+
+    private TransactionTemplate readOnlyTransaction;
+    private ObjectWriter rowWriter;
+
+    @PostConstruct
+    void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        rowWriter = objectMapper.writerFor(TransactionRes.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Streams every transaction matching the filter (paging fields are ignored)
+     * from a database cursor straight to the response. Only one fetch of rows
+     * and one output buffer are in memory at a time, whatever the history size.
+     */
+    public StreamingResponseBody exportTransactions(TransactionFilterDto filter, TransactionFileFormat format) {
+        // Resolved on the request thread; the body is written on an async thread without the security context
+        Long userId = accountService.getCurrentAccountIdOrThrow();
+        TransactionSearchDto search = resolveSearch(userId, filter);
+        log.debug("Exporting transactions for user: {}, format: {}, filters: {}", userId, format, filter);
+
+        return out -> readOnlyTransaction.executeWithoutResult(status -> {
+            try (Cursor<TransactionRes> cursor = transactionMapper.streamTransactions(userId, filter, search, false)) {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+                long rows = switch (format) {
+                    case CSV -> writeCsv(cursor, writer);
+                    case NDJSON -> writeNdjson(cursor, writer);
+                };
+                writer.flush();
+                log.info("Export completed - User: {}, Format: {}, Rows: {}", userId, format, rows);
+            } catch (IOException e) {
+                log.warn("Export aborted - User: {}, Error: {}", userId, e.getMessage());
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    // Columns named like the import's, so an export can be imported back
+    private long writeCsv(Cursor<TransactionRes> cursor, Writer writer) throws IOException {
+        CsvWriter csv = new CsvWriter(writer);
+        csv.writeRow("id", "type", "amount", "title", "notes", "transactionDate",
+                "fromWalletId", "fromWalletName", "toWalletId", "toWalletName",
+                "categoryId", "categoryName", "createdAt", "updatedAt");
+
+        long rows = 0;
+        for (TransactionRes t : cursor) {
+            csv.writeRow(t.id(), t.type(), t.amount().toPlainString(), t.title(), t.notes(), t.transactionDate(),
+                    t.fromWalletId(), t.fromWalletName(), t.toWalletId(), t.toWalletName(),
+                    t.categoryId(), t.categoryName(), t.createdAt(), t.updatedAt());
+            if (++rows % FLUSH_EVERY_ROWS == 0) writer.flush();
+        }
+        return rows;
+    }
+
+    private long writeNdjson(Cursor<TransactionRes> cursor, Writer writer) throws IOException {
+        long rows = 0;
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(writer)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.setRootValueSeparator(null);
+            for (TransactionRes t : cursor) {
+                rowWriter.writeValue(json, t);
+                json.writeRaw('\n');
+                if (++rows % FLUSH_EVERY_ROWS == 0) json.flush();
+            }
+        }
+        return rows;
+    }
+
+    // Same full-text-then-trigram rule as the list endpoint, decided up front since a stream can't be re-run
+    private TransactionSearchDto resolveSearch(Long userId, TransactionFilterDto filter) {
+        if (filter.search() == null || filter.search().isBlank()) return null;
+
+        TransactionSearchDto search = TransactionSearchDto.fullText(filter.search().strip());
+        if (!search.fuzzy() && !transactionMapper.hasMatches(userId, filter, search, false)) {
+            return TransactionSearchDto.fuzzy(filter.search().strip());
+        }
+        return search;
+    }
+}
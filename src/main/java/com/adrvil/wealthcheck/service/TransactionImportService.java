@@ -0,0 +1,446 @@
+package com.adrvil.wealthcheck.service;
+
+import com.adrvil.wealthcheck.common.exception.BadRequestException;
+import com.adrvil.wealthcheck.common.exception.InsufficientBalanceException;
+import com.adrvil.wealthcheck.common.exception.InvalidTransactionRequestException;
+import com.adrvil.wealthcheck.common.exception.UnsupportedTransactionTypeException;
+import com.adrvil.wealthcheck.converter.TransactionDtoMapper;
+import com.adrvil.wealthcheck.dto.request.TransactionReq;
+import com.adrvil.wealthcheck.dto.response.CategoryRes;
+import com.adrvil.wealthcheck.dto.response.TransactionImportRes;
+import com.adrvil.wealthcheck.dto.response.WalletRes;
+import com.adrvil.wealthcheck.entity.TransactionEntity;
+import com.adrvil.wealthcheck.enums.TransactionFileFormat;
+import com.adrvil.wealthcheck.enums.TransactionType;
+import com.adrvil.wealthcheck.mapper.NetWorthMapper;
+import com.adrvil.wealthcheck.mapper.TransactionMapper;
+import com.adrvil.wealthcheck.mapper.TransactionMonthTotalsMapper;
+import com.adrvil.wealthcheck.mapper.WalletBalanceMapper;
+import com.adrvil.wealthcheck.mapper.WalletLedgerMapper;
+import com.adrvil.wealthcheck.mapper.WalletMapper;
+import com.adrvil.wealthcheck.utils.AppZone;
+import com.adrvil.wealthcheck.utils.CacheUtil;
+import com.adrvil.wealthcheck.utils.CsvReader;
+import com.adrvil.wealthcheck.utils.TransactionRetry;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.*;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class TransactionImportService {
+    private static final int BATCH_SIZE = 500;
+    private static final int MAX_REPORTED_ERRORS = 200;
+    private static final List<String> REQUIRED_CSV_COLUMNS = List.of("type", "amount", "title", "transactionDate");
+
+    private final AccountService accountService;
+    private final WalletService walletService;
+    private final CategoryService categoryService;
+    private final SqlSessionFactory sqlSessionFactory;
+    private final ObjectMapper objectMapper;
+    private final CacheUtil cacheUtil;
+    private final TransactionRetry transactionRetry;
+
+    @Value("${transaction.import.max-rows:50000}")
+    private int maxRows;
+
+    private SqlSessionTemplate batchSqlSession;
+
+    @PostConstruct
+    void init() {
+        // Not a bean: a second SqlSessionTemplate would replace the default one the mappers are wired to
+        batchSqlSession = new SqlSessionTemplate(sqlSessionFactory, ExecutorType.BATCH);
+    }
+
+    /**
+     * Validates every row against the user's wallets and categories, then inserts
+     * all of them in JDBC batches and applies one net balance update per wallet.
+     * All-or-nothing: if any row is invalid nothing is written and the report
+     * lists the offending lines.
+     */
+    public TransactionImportRes importTransactions(InputStream body, TransactionFileFormat format) {
+        Long userId = accountService.getCurrentAccountIdOrThrow();
+        log.debug("Importing transactions for user: {}, format: {}", userId, format);
+
+        // Served from the wallet/category caches; loaded before the batch transaction opens
+        Map<Long, WalletRes> wallets = walletService.getAllWallets().stream()
+                .collect(Collectors.toMap(WalletRes::id, Function.identity()));
+        Map<Long, CategoryRes> categories = categoryService.getAllCategories().stream()
+                .collect(Collectors.toMap(CategoryRes::id, Function.identity()));
+
+        ImportBatch batch = new ImportBatch(userId, wallets, categories);
+        try {
+            switch (format) {
+                case CSV -> readCsv(body, batch);
+                case NDJSON -> readNdjson(body, batch);
+            }
+        } catch (IOException e) {
+            log.warn("Import read failed - User: {}, Error: {}", userId, e.getMessage());
+            throw new BadRequestException("Could not read import file: " + e.getMessage());
+        }
+
+        if (batch.errorCount > 0 || batch.rows.isEmpty()) {
+            log.info("Import rejected - User: {}, Rows: {}, Errors: {}", userId, batch.totalRows, batch.errorCount);
+            return batch.report(0);
+        }
+
+        transactionRetry.executeWithoutResult("transaction.import", () -> writeBatch(userId, batch));
+
+        cacheUtil.evictionBatch().userCaches(userId).flushCommitted();
+
+        log.info("Import completed - User: {}, Rows: {}, Wallets updated: {}",
+                userId, batch.rows.size(), batch.deltas.size());
+        return batch.report(batch.rows.size());
+    }
+
+    // Wallets first, in ascending id order, then the aggregate rows in key order:
+    // the same lock order as the single-statement writes in TransactionMapper.xml
+    private void writeBatch(Long userId, ImportBatch batch) {
+        TransactionMapper transactionMapper = batchSqlSession.getMapper(TransactionMapper.class);
+        WalletMapper walletMapper = batchSqlSession.getMapper(WalletMapper.class);
+
+        List<Long> walletIds = batch.deltas.entrySet().stream()
+                .filter(e -> e.getValue().signum() != 0)
+                .map(Map.Entry::getKey)
+                .toList();
+        if (!walletIds.isEmpty()) {
+            walletIds.forEach(walletId -> walletMapper.applyBalanceDelta(userId, walletId, batch.deltas.get(walletId)));
+            List<BatchResult> results = batchSqlSession.flushStatements();
+            int[] updateCounts = results.getFirst().getUpdateCounts();
+            for (int i = 0; i < walletIds.size(); i++) {
+                if (updateCounts[i] == 0) {
+                    log.warn("Import would overdraw wallet - Wallet: {}, User: {}, Delta: {}",
+                            walletIds.get(i), userId, batch.deltas.get(walletIds.get(i)));
+                    throw new InsufficientBalanceException(
+                            "Insufficient balance in wallet " + walletIds.get(i) + " for the imported transactions");
+                }
+            }
+        }
+
+        for (int i = 0; i < batch.rows.size(); i++) {
+            transactionMapper.insertImported(batch.rows.get(i));
+            if ((i + 1) % BATCH_SIZE == 0) {
+                batchSqlSession.flushStatements();
+            }
+        }
+        batchSqlSession.flushStatements();
+
+        TransactionMonthTotalsMapper monthTotalsMapper = batchSqlSession.getMapper(TransactionMonthTotalsMapper.class);
+        monthTotalsMapper.lockShared(userId);
+        batch.monthTotals.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(MONTH_KEY_ORDER))
+                .forEach(e -> monthTotalsMapper.applyDelta(userId, e.getKey().month(), e.getKey().type(),
+                        e.getKey().categoryId(), e.getValue().total(), e.getValue().txnCount()));
+        NetWorthMapper netWorthMapper = batchSqlSession.getMapper(NetWorthMapper.class);
+        batch.netWorthChanges.forEach((day, change) -> netWorthMapper.applyDelta(userId, day, change));
+        WalletBalanceMapper walletBalanceMapper = batchSqlSession.getMapper(WalletBalanceMapper.class);
+        batch.walletChanges.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(WALLET_DAY_ORDER))
+                .forEach(e -> walletBalanceMapper.applyDelta(e.getKey().walletId(), userId, e.getKey().day(), e.getValue()));
+
+        // One ledger row per wallet for the whole import, no transaction id
+        WalletLedgerMapper walletLedgerMapper = batchSqlSession.getMapper(WalletLedgerMapper.class);
+        walletIds.forEach(walletId -> walletLedgerMapper.append(walletId, userId, null, batch.deltas.get(walletId)));
+        batchSqlSession.flushStatements();
+    }
+
+    private void readCsv(InputStream body, ImportBatch batch) throws IOException {
+        try (CsvReader csv = new CsvReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            List<String> header = csv.next();
+            if (header == null) return;
+
+            Map<String, Integer> columns = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(normalizeColumn(header.get(i)), i);
+            }
+            List<String> missing = REQUIRED_CSV_COLUMNS.stream()
+                    .filter(column -> !columns.containsKey(normalizeColumn(column)))
+                    .toList();
+            if (!missing.isEmpty()) {
+                throw new BadRequestException("CSV header is missing column(s): " + String.join(", ", missing));
+            }
+
+            List<String> record;
+            while ((record = csv.next()) != null) {
+                long line = csv.recordLine();
+                TransactionReq req;
+                try {
+                    req = toTransactionReq(record, columns);
+                } catch (IllegalArgumentException | DateTimeParseException e) {
+                    batch.reject(line, e.getMessage());
+                    continue;
+                }
+                batch.accept(line, req);
+            }
+        }
+    }
+
+    private void readNdjson(InputStream body, ImportBatch batch) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String json;
+            long line = 0;
+            while ((json = reader.readLine()) != null) {
+                line++;
+                if (json.isBlank()) continue;
+
+                TransactionReq req;
+                try {
+                    req = objectMapper.readValue(json, TransactionReq.class);
+                } catch (JsonProcessingException e) {
+                    batch.reject(line, "Invalid JSON: " + e.getOriginalMessage());
+                    continue;
+                }
+                batch.accept(line, req);
+            }
+        }
+    }
+
+    private TransactionReq toTransactionReq(List<String> record, Map<String, Integer> columns) {
+        String type = column(record, columns, "type");
+        String amount = column(record, columns, "amount");
+        String transactionDate = column(record, columns, "transactionDate");
+        String fromWalletId = column(record, columns, "fromWalletId");
+        String toWalletId = column(record, columns, "toWalletId");
+        String categoryId = column(record, columns, "categoryId");
+
+        return new TransactionReq(
+                fromWalletId != null ? parseId("fromWalletId", fromWalletId) : null,
+                toWalletId != null ? parseId("toWalletId", toWalletId) : null,
+                categoryId != null ? parseId("categoryId", categoryId) : null,
+                column(record, columns, "title"),
+                column(record, columns, "notes"),
+                amount != null ? parseAmount(amount) : null,
+                type != null ? parseType(type) : null,
+                transactionDate != null ? parseDate(transactionDate) : null
+        );
+    }
+
+    private static String column(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(normalizeColumn(name));
+        if (index == null || index >= record.size()) return null;
+        String value = record.get(index).strip();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String normalizeColumn(String name) {
+        return name.strip().replace("_", "").replace(" ", "").toLowerCase(Locale.ROOT);
+    }
+
+    private static Long parseId(String column, String value) {
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + column + ": " + value);
+        }
+    }
+
+    private static BigDecimal parseAmount(String value) {
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid amount: " + value);
+        }
+    }
+
+    private static TransactionType parseType(String value) {
+        try {
+            return TransactionType.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid type: " + value + ". Allowed values: "
+                    + Arrays.toString(TransactionType.values()));
+        }
+    }
+
+    /**
+     * ISO instant or offset date-time as-is; a bare date or local date-time
+     * (what most bank exports contain) is read in the application time zone.
+     */
+    private Instant parseDate(String value) {
+        try {
+            return OffsetDateTime.parse(value).toInstant();
+        } catch (DateTimeParseException ignored) {
+            // fall through to zone-less formats
+        }
+        try {
+            return LocalDateTime.parse(value).atZone(AppZone.ZONE).toInstant();
+        } catch (DateTimeParseException ignored) {
+            // fall through to a bare date
+        }
+        try {
+            return LocalDate.parse(value).atStartOfDay(AppZone.ZONE).toInstant();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid transactionDate: " + value);
+        }
+    }
+
+    private record MonthKey(LocalDate month, TransactionType type, Long categoryId) {
+    }
+
+    private record WalletDay(Long walletId, LocalDate day) {
+    }
+
+    // Primary key order of transaction_month_totals and wallet_balance_daily (enum order matches transaction_type)
+    private static final Comparator<MonthKey> MONTH_KEY_ORDER = Comparator.comparing(MonthKey::month)
+            .thenComparing(MonthKey::type)
+            .thenComparing(MonthKey::categoryId);
+    private static final Comparator<WalletDay> WALLET_DAY_ORDER = Comparator.comparing(WalletDay::walletId)
+            .thenComparing(WalletDay::day);
+
+    private record MonthTotal(BigDecimal total, int txnCount) {
+        private MonthTotal plus(MonthTotal other) {
+            return new MonthTotal(total.add(other.total), txnCount + other.txnCount);
+        }
+    }
+
+    /**
+     * Rows accepted so far, the per-wallet net balance change, the
+     * transaction_month_totals, net_worth_daily and wallet_balance_daily deltas,
+     * and the error report.
+     */
+    private class ImportBatch {
+        private final Long userId;
+        private final Map<Long, WalletRes> wallets;
+        private final Map<Long, CategoryRes> categories;
+        private final List<TransactionEntity> rows = new ArrayList<>();
+        private final Map<Long, BigDecimal> deltas = new TreeMap<>();
+        private final Map<MonthKey, MonthTotal> monthTotals = new HashMap<>();
+        private final Map<LocalDate, BigDecimal> netWorthChanges = new TreeMap<>();
+        private final Map<WalletDay, BigDecimal> walletChanges = new HashMap<>();
+        private final List<TransactionImportRes.RowError> errors = new ArrayList<>();
+        private long totalRows;
+        private long errorCount;
+
+        private ImportBatch(Long userId, Map<Long, WalletRes> wallets, Map<Long, CategoryRes> categories) {
+            this.userId = userId;
+            this.wallets = wallets;
+            this.categories = categories;
+        }
+
+        private void accept(long line, TransactionReq req) {
+            countRow();
+            String error = validate(req);
+            if (error != null) {
+                addError(line, error);
+                return;
+            }
+
+            // Once a row failed nothing will be written, so stop buffering and only collect errors
+            if (errorCount > 0) return;
+
+            rows.add(TransactionDtoMapper.toEntity(userId, req));
+            // Same bucketing as the SQL side: the transaction date's day in AppZone
+            LocalDate day = req.transactionDate().atZone(AppZone.ZONE).toLocalDate();
+            switch (req.type()) {
+                case EXPENSE -> debit(req.fromWalletId(), day, req.amount());
+                case INCOME -> credit(req.toWalletId(), day, req.amount());
+                case TRANSFER -> {
+                    debit(req.fromWalletId(), day, req.amount());
+                    credit(req.toWalletId(), day, req.amount());
+                }
+            }
+            if (req.type() != TransactionType.TRANSFER) {
+                netWorthChanges.merge(day, req.type() == TransactionType.INCOME ? req.amount() : req.amount().negate(),
+                        BigDecimal::add);
+                if (req.categoryId() != null) {
+                    monthTotals.merge(new MonthKey(day.withDayOfMonth(1), req.type(), req.categoryId()),
+                            new MonthTotal(req.amount(), 1), MonthTotal::plus);
+                }
+            }
+        }
+
+        private void debit(Long walletId, LocalDate day, BigDecimal amount) {
+            credit(walletId, day, amount.negate());
+        }
+
+        private void credit(Long walletId, LocalDate day, BigDecimal amount) {
+            deltas.merge(walletId, amount, BigDecimal::add);
+            walletChanges.merge(new WalletDay(walletId, day), amount, BigDecimal::add);
+        }
+
+        private void reject(long line, String error) {
+            countRow();
+            addError(line, error);
+        }
+
+        private void countRow() {
+            if (++totalRows > maxRows) {
+                throw new BadRequestException("Import is limited to " + maxRows + " rows per file");
+            }
+        }
+
+        private void addError(long line, String error) {
+            errorCount++;
+            rows.clear();
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new TransactionImportRes.RowError(line, error));
+            }
+        }
+
+        /**
+         * Same rules as TransactionService.createTransaction, checked against the
+         * in-memory wallets and categories instead of one lookup per row.
+         */
+        private String validate(TransactionReq req) {
+            if (req.title() == null || req.title().isBlank()) return "Title is required";
+            if (req.amount() == null || req.amount().signum() <= 0) return "Amount must be greater than 0";
+            if (req.type() == null) return "Type is required";
+            if (req.transactionDate() == null) return "Transaction date is required";
+
+            try {
+                TransactionService.validateTransactionReq(req);
+            } catch (InvalidTransactionRequestException | UnsupportedTransactionTypeException e) {
+                return e.getMessage();
+            }
+
+            if (req.fromWalletId() != null) {
+                WalletRes fromWallet = wallets.get(req.fromWalletId());
+                if (fromWallet == null) return "Wallet not found: " + req.fromWalletId();
+                if (fromWallet.createAt() != null && req.transactionDate().isBefore(fromWallet.createAt())) {
+                    return "Transaction date is earlier than the source wallet's creation date";
+                }
+            }
+
+            if (req.toWalletId() != null) {
+                WalletRes toWallet = wallets.get(req.toWalletId());
+                if (toWallet == null) return "Wallet not found: " + req.toWalletId();
+                if (toWallet.createAt() != null && req.transactionDate().isBefore(toWallet.createAt())) {
+                    return "Transaction date is earlier than the destination wallet's creation date";
+                }
+            }
+
+            if (req.categoryId() != null) {
+                CategoryRes category = categories.get(req.categoryId());
+                if (category == null) return "Category not found: " + req.categoryId();
+                if (!category.type().name().equals(req.type().name())) {
+                    return "Category type " + category.type() + " does not match transaction type " + req.type();
+                }
+            }
+            return null;
+        }
+
+        private TransactionImportRes report(long importedRows) {
+            return new TransactionImportRes(totalRows, importedRows, errorCount, List.copyOf(errors));
+        }
+    }
+}
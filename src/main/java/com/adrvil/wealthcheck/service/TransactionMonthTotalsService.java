@@ -0,0 +1,88 @@
+package com.adrvil.wealthcheck.service;
+
+import com.adrvil.wealthcheck.mapper.AccountMapper;
+import com.adrvil.wealthcheck.mapper.TransactionMonthTotalsMapper;
+import com.adrvil.wealthcheck.utils.AppZone;
+import com.adrvil.wealthcheck.utils.CacheUtil;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Backfill and drift repair for transaction_month_totals. The table is
+ * maintained incrementally by the transaction writes; this recomputes it from
+ * transactions one user per DB transaction, fixing only rows that differ, on
+ * one node at a time.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TransactionMonthTotalsService {
+    private final TransactionMonthTotalsMapper mapper;
+    private final AccountMapper accountMapper;
+    private final PlatformTransactionManager transactionManager;
+    private final CacheUtil cacheUtil;
+
+    // The rebuild lock is held by an outer transaction; each user's rebuild commits on its own
+    private TransactionTemplate lockTemplate;
+    private TransactionTemplate userTemplate;
+
+    @PostConstruct
+    void init() {
+        lockTemplate = new TransactionTemplate(transactionManager);
+        userTemplate = new TransactionTemplate(transactionManager);
+        userTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // Backfill: db/004 creates the table empty. The rebuild only rewrites rows that
+    // differ, so it runs on every startup rather than when the table looks empty:
+    // writes that land first (or an older node's, which skip the table) skip no one.
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        CompletableFuture.runAsync(() -> {
+            try {
+                rebuild();
+            } catch (Exception e) {
+                log.error("Month totals backfill failed", e);
+            }
+        });
+    }
+
+    @Scheduled(cron = "${transaction.month-totals.rebuild-cron:0 30 3 * * ?}", zone = AppZone.ID)
+    public void rebuild() {
+        lockTemplate.executeWithoutResult(status -> {
+            if (!mapper.tryLockRebuild()) {
+                log.info("Month totals rebuild skipped, another node holds the lock");
+                return;
+            }
+            int users = 0;
+            int repairedRows = 0;
+            for (Long userId : accountMapper.findAllIds()) {
+                try {
+                    Integer repaired = userTemplate.execute(userStatus -> {
+                        mapper.lockExclusive(userId);
+                        return mapper.rebuildForUser(userId);
+                    });
+                    if (repaired != null && repaired > 0) {
+                        log.warn("Month totals repaired - User: {}, Rows: {}", userId, repaired);
+                        cacheUtil.invalidateUserCaches(userId);
+                        repairedRows += repaired;
+                    }
+                    users++;
+                } catch (Exception e) {
+                    log.error("Month totals rebuild failed - User: {}", userId, e);
+                }
+            }
+            log.info("Month totals rebuild complete. Checked {} users, repaired {} rows.", users, repairedRows);
+        });
+    }
+}
@@ -1,8 +1,9 @@
 package com.adrvil.wealthcheck.service;
 
 import com.adrvil.wealthcheck.common.exception.*;
-import com.adrvil.wealthcheck.converter.TransactionDtoMapper;
+import com.adrvil.wealthcheck.dto.TransactionCursor;
 import com.adrvil.wealthcheck.dto.TransactionFilterDto;
+import com.adrvil.wealthcheck.dto.TransactionSearchDto;
 import com.adrvil.wealthcheck.dto.request.TransactionReq;
 import com.adrvil.wealthcheck.dto.response.TransactionFilterRes;
 import com.adrvil.wealthcheck.dto.response.TransactionRes;
@@ -15,53 +16,46 @@ import com.adrvil.wealthcheck.mapper.CategoryMapper;
 import com.adrvil.wealthcheck.mapper.TransactionMapper;
 import com.adrvil.wealthcheck.mapper.WalletMapper;
 import com.adrvil.wealthcheck.utils.CacheUtil;
+import com.adrvil.wealthcheck.utils.TransactionRetry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class TransactionService {
+    private static final int MAX_CACHED_COUNTS_PER_USER = 50;
+
     private final AccountService accountService;
     private final TransactionMapper transactionMapper;
     private final WalletMapper walletMapper;
     private final CategoryMapper categoryMapper;
     private final CacheUtil cacheUtil;
+    private final TransactionRetry transactionRetry;
 
 
-    @Transactional
     public TransactionRes createTransaction(TransactionReq req) {
         Long userId = accountService.getCurrentAccountIdOrThrow();
         log.debug("Creating transaction for user: {}, type: {}, amount: {}", userId, req.type(), req.amount());
         validateTransactionReq(req);
-        validateCategoryType(userId, req.categoryId(), req.type());
-
-        TransactionEntity transactionEntity = TransactionDtoMapper.toEntity(userId, req);
-        WalletEntity fromWallet = fetchWallet(req.fromWalletId(), userId);
-        WalletEntity toWallet = fetchWallet(req.toWalletId(), userId);
-
-        validateTransactionDate(req, fromWallet, toWallet);
-
-        log.debug("Processing balance change - Type: {}, From: {}, To: {}, Amount: {}",
-                req.type(), req.fromWalletId(), req.toWalletId(), req.amount());
 
-        processBalanceChange(userId, req.type(), fromWallet, toWallet, req.amount());
-        transactionMapper.insert(transactionEntity);
+        TransactionRes created = transactionRetry.execute("transaction.create", () ->
+                transactionMapper.createAndApplyBalance(userId, req)
+                        .orElseThrow(() -> explainRejectedWrite(userId, req)));
 
-        evictTransactionCaches(userId, transactionEntity.getId(), fromWallet, toWallet);
+        refreshUserCaches(userId, created);
         log.info("Transaction created successfully - ID: {}, User: {}, Type: {}, Amount: {}",
-                transactionEntity.getId(), userId, req.type(), req.amount());
-        return transactionMapper.findResByIdAndUserId(transactionEntity.getId(), userId, false)
-                .orElseThrow(() -> new ResourceNotFound("Transaction"));
+                created.id(), userId, req.type(), req.amount());
+        return created;
     }
 
-    @Transactional
     public TransactionRes updateTransaction(Long id, TransactionReq req) {
         Long userId = accountService.getCurrentAccountIdOrThrow();
 
@@ -69,72 +63,27 @@ public class TransactionService {
                 id, userId, req.type(), req.amount());
 
         validateTransactionReq(req);
-        validateCategoryType(userId, req.categoryId(), req.type());
-
-        TransactionEntity existing = transactionMapper.findByIdAndUserId(id, userId, false)
-                .orElseThrow(() -> new ResourceNotFound("Transaction"));
-
-        log.debug("Found existing transaction - Type: {}, Amount: {}, From: {}, To: {}",
-                existing.getType(), existing.getAmount(), existing.getFromWalletId(), existing.getToWalletId());
-
-        WalletEntity oldFrom = fetchWallet(existing.getFromWalletId(), userId);
-        WalletEntity oldTo = fetchWallet(existing.getToWalletId(), userId);
 
-        WalletEntity newFrom = fetchWallet(req.fromWalletId(), userId);
-        WalletEntity newTo = fetchWallet(req.toWalletId(), userId);
-
-        validateTransactionDate(req, newFrom, newTo);
-
-        if (!existing.getType().equals(req.type())) {
-            throw new BadRequestException("Transaction type cannot be changed.");
-        }
-
-        if (!Objects.equals(existing.getFromWalletId(), req.fromWalletId())
-                || !Objects.equals(existing.getToWalletId(), req.toWalletId())) {
-            throw new BadRequestException("Cannot change source/destination wallet.");
-        }
-
-
-        log.debug(
-                "Updating transaction {} -> Delta Apply | User: {} | OldType: {} | NewType: {} | OldAmount: {} | NewAmount: {} | OldFrom: {} | OldTo: {} | NewFrom: {} | NewTo: {}",
-                existing.getId(),
-                userId,
-                existing.getType(), req.type(),
-                existing.getAmount(), req.amount(),
-                oldFrom != null ? oldFrom.getId() : null,
-                oldTo != null ? oldTo.getId() : null,
-                newFrom != null ? newFrom.getId() : null,
-                newTo != null ? newTo.getId() : null
-        );
-
-
-        applyDelta(existing.getType(),oldFrom,oldTo,newFrom,newTo,existing.getAmount(),req.amount(),userId);
-
-        existing.setFromWalletId(req.fromWalletId());
-        existing.setToWalletId(req.toWalletId());
-        existing.setCategoryId(req.categoryId());
-        existing.setTitle(req.title());
-        existing.setNotes(req.notes());
-        existing.setAmount(req.amount());
-        existing.setType(req.type());
-        existing.setTransactionDate(req.transactionDate());
-
-        int updated = transactionMapper.update(existing);
-        if (updated == 0) {
-            log.warn("Transaction update failed - ID: {}, User: {}", id, userId);
-            throw new ResourceNotFound("Transaction");
-        }
-
-        evictTransactionCaches(userId, id, newFrom, newTo);
+        TransactionRes updated = transactionRetry.execute("transaction.update", () ->
+                transactionMapper.updateAndApplyDelta(userId, id, req)
+                        .orElseThrow(() -> explainRejectedUpdate(userId, id, req)));
 
+        refreshUserCaches(userId, updated);
 
         log.info("Transaction updated successfully - ID: {}, User: {}, Type: {}, Amount: {}",
                 id, userId, req.type(), req.amount());
-        return getTransaction(id);
+        return updated;
     }
 
     public TransactionRes getTransaction(Long id) {
         Long userId = accountService.getCurrentAccountIdOrThrow();
+        String cacheKey = cacheUtil.userKey(userId, id);
+
+        TransactionRes cached = cacheUtil.get(CacheName.TRANSACTION.getValue(), cacheKey, TransactionRes.class);
+        if (cached != null) {
+            log.debug("Returning cached transaction - ID: {}, User: {}", id, userId);
+            return cached;
+        }
 
         log.debug("Fetching transaction - ID: {}, User: {}", id, userId);
 
@@ -145,6 +94,8 @@ public class TransactionService {
                 });
 
         log.debug("Transaction found - ID: {}, Type: {}, Amount: {}", id, transaction.type(), transaction.amount());
+
+        cacheUtil.put(CacheName.TRANSACTION.getValue(), cacheKey, transaction);
         return transaction;
     }
 
@@ -162,109 +113,51 @@ public class TransactionService {
         return getTransactionList(userId, filter, softDeleted);
     }
 
-    @Transactional
     public TransactionRes deleteTransaction(Long id) {
         Long userId = accountService.getCurrentAccountIdOrThrow();
         log.debug("Soft deleting transaction - ID: {}, User: {}", id, userId);
 
-        TransactionRes existingRes = getTransaction(id);
-
-        Long fromId = existingRes.fromWalletId();
-        Long toId = existingRes.toWalletId();
-
-        WalletEntity oldFrom = null;
-        WalletEntity oldTo = null;
+        TransactionRes deleted = transactionRetry.execute("transaction.delete", () ->
+                transactionMapper.softDeleteAndRevertBalance(userId, id)
+                        .orElseThrow(() -> {
+                            if (!Boolean.FALSE.equals(transactionMapper.isSoftDeleted(userId, id))) {
+                                log.warn("Transaction soft delete failed - ID: {}, User: {}", id, userId);
+                                return new ResourceNotFound("Transaction");
+                            }
+                            return new InsufficientBalanceException("Insufficient balance (concurrent-safe)");
+                        }));
 
-        if (fromId != null) {
-            oldFrom = walletMapper.findByIdAndUserId(fromId, userId).orElse(null);
-        }
-        if (toId != null) {
-            oldTo = walletMapper.findByIdAndUserId(toId, userId).orElse(null);
-        }
-
-        log.debug("Reverting balance for deletion - Type: {}, Amount: {}", existingRes.type(), existingRes.amount());
-
-        switch (existingRes.type()) {
-            case EXPENSE:
-                if (oldFrom != null) increaseBalance(userId, oldFrom, existingRes.amount());
-                break;
-            case INCOME:
-                if (oldTo != null) decreaseBalance(userId, oldTo, existingRes.amount());
-                break;
-            case TRANSFER:
-                if (oldFrom != null) increaseBalance(userId, oldFrom, existingRes.amount());
-                if (oldTo != null) decreaseBalance(userId, oldTo, existingRes.amount());
-                break;
-        }
-
-        if (transactionMapper.softDelete(userId, id) == 0) {
-            log.warn("Transaction soft delete failed - ID: {}, User: {}", id, userId);
-            throw new ResourceNotFound("Transaction");
-        }
-
-        evictTransactionCaches(userId, id, oldFrom, oldTo);
+        cacheUtil.evictionBatch().userCaches(userId).flushCommitted();
 
         log.info("Transaction soft deleted successfully - ID: {}, User: {}, Type: {}, Amount: {}",
-                id, userId, existingRes.type(), existingRes.amount());
+                id, userId, deleted.type(), deleted.amount());
 
-        return existingRes;
+        return deleted;
     }
 
-    @Transactional
     public TransactionRes restoreTransaction(Long id) {
         Long userId = accountService.getCurrentAccountIdOrThrow();
         log.debug("Restoring soft-deleted transaction - ID: {}, User: {}", id, userId);
 
-        TransactionRes existingRes = transactionMapper.findResByIdAndUserId(id, userId, true)
-                .orElseThrow(() -> new ResourceNotFound("Transaction"));
-
-        Boolean isSoftDeleted = transactionMapper.isSoftDeleted(userId, id);
-
-        if (isSoftDeleted == null) {
-            log.warn("Transaction not found for restoration - ID: {}, User: {}", id, userId);
-            throw new ResourceNotFound("Transaction");
-        }
-        if (!isSoftDeleted) {
-            log.warn("Restore rejected - Transaction is NOT soft deleted. ID: {}, User: {}", id, userId);
-            throw new IllegalStateException("Transaction is not soft deleted");
-        }
-
-        Long fromId = existingRes.fromWalletId();
-        Long toId = existingRes.toWalletId();
-
-        WalletEntity oldFrom = null;
-        WalletEntity oldTo = null;
-
-        if (fromId != null) {
-            oldFrom = walletMapper.findByIdAndUserId(fromId, userId).orElse(null);
-        }
-        if (toId != null) {
-            oldTo = walletMapper.findByIdAndUserId(toId, userId).orElse(null);
-        }
-
-        log.debug("Applying original balance changes for restoration - Type: {}, Amount: {}", existingRes.type(), existingRes.amount());
-
-        switch (existingRes.type()) {
-            case EXPENSE:
-                if (oldFrom != null) decreaseBalance(userId, oldFrom, existingRes.amount());
-                break;
-            case INCOME:
-                if (oldTo != null) increaseBalance(userId, oldTo, existingRes.amount());
-                break;
-            case TRANSFER:
-                if (oldFrom != null) decreaseBalance(userId, oldFrom, existingRes.amount());
-                if (oldTo != null) increaseBalance(userId, oldTo, existingRes.amount());
-                break;
-        }
-
-        if (transactionMapper.restoreTransaction(userId, id) == 0) {
-            throw new ResourceNotFound("Transaction");
-        }
-
-        evictTransactionCaches(userId, id, oldFrom, oldTo);
+        TransactionRes restored = transactionRetry.execute("transaction.restore", () ->
+                transactionMapper.restoreAndReapplyBalance(userId, id)
+                        .orElseThrow(() -> {
+                            Boolean isSoftDeleted = transactionMapper.isSoftDeleted(userId, id);
+                            if (isSoftDeleted == null) {
+                                log.warn("Transaction not found for restoration - ID: {}, User: {}", id, userId);
+                                return new ResourceNotFound("Transaction");
+                            }
+                            if (!isSoftDeleted) {
+                                log.warn("Restore rejected - Transaction is NOT soft deleted. ID: {}, User: {}", id, userId);
+                                return new IllegalStateException("Transaction is not soft deleted");
+                            }
+                            return new InsufficientBalanceException("Insufficient balance (concurrent-safe)");
+                        }));
+
+        refreshUserCaches(userId, restored);
         log.info("Transaction restored successfully - ID: {}, User: {}, Type: {}, Amount: {}",
-                id, userId, existingRes.type(), existingRes.amount());
-        return existingRes;
+                id, userId, restored.type(), restored.amount());
+        return restored;
     }
 
     @Transactional
@@ -288,66 +181,145 @@ public class TransactionService {
             throw new ResourceNotFound("Transaction");
         }
 
-        evictTransactionCaches(userId, id, null, null);
+        cacheUtil.invalidateUserCaches(userId);
         log.info("Transaction permanently deleted - ID: {}, User: {}", id, userId);
     }
 
 
     // --- helper methods ---
 
-    private void evictTransactionCaches(Long userId, Long transactionId, WalletEntity fromWallet, WalletEntity toWallet) {
-        cacheUtil.evict(CacheName.TRANSACTION.getValue(), userId + ":" + transactionId);
-        cacheUtil.evictOverviewCaches(userId);
+    // Write-through: the write statements return the same projection getTransaction caches.
+    // One batch, so the put is keyed in the generation the invalidation starts, not the one it ends.
+    private void refreshUserCaches(Long userId, TransactionRes transaction) {
+        cacheUtil.evictionBatch()
+                .userCaches(userId)
+                .putForUser(CacheName.TRANSACTION, userId, transaction.id(), transaction)
+                .flushCommitted();
+    }
 
-        if (fromWallet != null) cacheUtil.evictWalletCaches(userId, fromWallet.getId());
-        if (toWallet != null) cacheUtil.evictWalletCaches(userId, toWallet.getId());
+    /**
+     * Runs the checks the write statement made, one query at a time, to throw the
+     * specific error. Only reached when the statement wrote nothing; if every check
+     * passes, the balance guard is what failed.
+     */
+    private RuntimeException explainRejectedWrite(Long userId, TransactionReq req) {
+        validateCategoryType(userId, req.categoryId(), req.type());
+        WalletEntity fromWallet = fetchWallet(req.fromWalletId(), userId);
+        WalletEntity toWallet = fetchWallet(req.toWalletId(), userId);
+        validateTransactionDate(req, fromWallet, toWallet);
+
+        log.warn("Transaction write rejected by balance guard - User: {}, Type: {}, Amount: {}",
+                userId, req.type(), req.amount());
+        return new InsufficientBalanceException("Insufficient balance (concurrent-safe)");
+    }
+
+    private RuntimeException explainRejectedUpdate(Long userId, Long id, TransactionReq req) {
+        TransactionEntity existing = transactionMapper.findByIdAndUserId(id, userId, false)
+                .orElseThrow(() -> new ResourceNotFound("Transaction"));
+
+        if (!existing.getType().equals(req.type())) {
+            throw new BadRequestException("Transaction type cannot be changed.");
+        }
+
+        if (!Objects.equals(existing.getFromWalletId(), req.fromWalletId())
+                || !Objects.equals(existing.getToWalletId(), req.toWalletId())) {
+            throw new BadRequestException("Cannot change source/destination wallet.");
+        }
+
+        return explainRejectedWrite(userId, req);
     }
 
     private TransactionFilterRes getTransactionList(Long userId,
                                                     TransactionFilterDto filter,
                                                     boolean softDeleted) {
 
-        long transactionCount = transactionMapper.countTransactions(userId, filter, softDeleted);
-        List<TransactionRes> transactionResList = transactionMapper.findTransactions(userId, filter, softDeleted);
+        TransactionCursor cursor = filter.after() != null && !filter.after().isBlank()
+                ? TransactionCursor.decode(filter.after())
+                : null;
+
+        TransactionSearchDto search = filter.search() != null && !filter.search().isBlank()
+                ? TransactionSearchDto.fullText(filter.search().strip())
+                : null;
+
+        // Fetch one extra row to learn whether another page exists without a COUNT(*)
+        Integer size = filter.size();
+        Integer limit = size != null ? size + 1 : null;
+        List<TransactionRes> transactionResList =
+                transactionMapper.findTransactions(userId, filter, search, cursor, limit, softDeleted);
+
+        // Trigram matching only when full-text search finds nothing at all
+        if (transactionResList.isEmpty() && search != null && !search.fuzzy()) {
+            boolean firstPage = cursor == null && (filter.page() == null || filter.page() <= 1);
+            if (firstPage || !transactionMapper.hasMatches(userId, filter, search, softDeleted)) {
+                log.debug("No full-text matches for '{}', falling back to fuzzy title search", filter.search());
+                search = TransactionSearchDto.fuzzy(filter.search().strip());
+                transactionResList = transactionMapper.findTransactions(userId, filter, search, cursor, limit, softDeleted);
+            }
+        }
+
+        boolean hasMore = size != null && transactionResList.size() > size;
+        if (hasMore) {
+            transactionResList = transactionResList.subList(0, size);
+        }
+
+        String nextCursor = hasMore ? nextCursor(userId, search, cursor, transactionResList.getLast()) : null;
+
+        Long transactionCount = filter.countRequested()
+                ? countTransactions(userId, filter, search, softDeleted)
+                : null;
 
         log.info("Returning {} transactions for user: {} with filters: {}",
-                transactionCount, userId, filter);
+                transactionResList.size(), userId, filter);
 
-        return TransactionFilterRes.of(transactionResList, filter, transactionCount);
+        return TransactionFilterRes.of(transactionResList, filter, transactionCount, hasMore, nextCursor);
     }
 
-    private WalletEntity fetchWallet(Long walletId, Long userId) {
-        if (walletId == null || userId == null) return null;
-        return walletMapper.findByIdAndUserId(walletId, userId)
-                .orElseThrow(() -> new ResourceNotFound("Wallet"));
+    // Ranked search pages seek on the last row's score as well; a rankless cursor keeps date order
+    private String nextCursor(Long userId, TransactionSearchDto search, TransactionCursor cursor, TransactionRes last) {
+        if (search == null || (cursor != null && cursor.rank() == null)) {
+            return TransactionCursor.after(last).encode();
+        }
+        return TransactionCursor.after(last, transactionMapper.findSearchRank(userId, last.id(), search)).encode();
     }
 
-    private void processBalanceChange(Long userId, TransactionType type, WalletEntity fromWallet,
-                                      WalletEntity toWallet, BigDecimal amount) {
-        switch (type) {
-            case EXPENSE -> decreaseBalance(userId, fromWallet, amount);
-            case INCOME -> increaseBalance(userId, toWallet, amount);
-            case TRANSFER -> {
-                decreaseBalance(userId, fromWallet, amount);
-                increaseBalance(userId, toWallet, amount);
+    /**
+     * Exact count for the filter, cached per user and filter hash. All of a user's
+     * counts live in one generational entry, so a bump drops them with the rest.
+     */
+    private long countTransactions(Long userId, TransactionFilterDto filter, TransactionSearchDto search,
+                                   boolean softDeleted) {
+        String cacheKey = cacheUtil.userKey(userId);
+        String countKey = (softDeleted ? "deleted:" : "active:")
+                + (search != null && search.fuzzy() ? "fuzzy:" : "")
+                + filter.filterHash();
+
+        Map<String, Object> cachedCounts = new HashMap<>();
+        if (cacheUtil.get(CacheName.TRANSACTION_COUNT.getValue(), cacheKey) instanceof Map<?, ?> cachedMap) {
+            cachedMap.forEach((key, value) -> cachedCounts.put(String.valueOf(key), value));
+            if (cachedCounts.get(countKey) instanceof Number cachedCount) {
+                log.debug("Returning cached transaction count for user: {}", userId);
+                return cachedCount.longValue();
             }
-            default -> throw new UnsupportedTransactionTypeException();
         }
-    }
 
-    private void decreaseBalance(Long userId, WalletEntity wallet, BigDecimal amount) {
-        if (wallet == null || userId == null) throw new IllegalArgumentException("Wallet and userId required for expense/transfer");
-        int updated = walletMapper.decreaseBalance(userId, wallet.getId(), amount);
-        if (updated == 0) throw new InsufficientBalanceException("Insufficient balance (concurrent-safe)");
+        long transactionCount = transactionMapper.countTransactions(userId, filter, search, softDeleted);
+
+        if (cachedCounts.size() >= MAX_CACHED_COUNTS_PER_USER) {
+            cachedCounts.clear();
+        }
+        cachedCounts.put(countKey, transactionCount);
+        cacheUtil.put(CacheName.TRANSACTION_COUNT.getValue(), cacheKey, cachedCounts);
+
+        return transactionCount;
     }
 
-    private void increaseBalance(Long userId, WalletEntity wallet, BigDecimal amount) {
-        if (wallet == null) throw new IllegalArgumentException("Wallet and userId required for income/transfer");
-        int updated = walletMapper.increaseBalance(userId, wallet.getId(), amount);
-        if (updated == 0) throw new TransactionProcessingException("Failed to credit wallet");
+    private WalletEntity fetchWallet(Long walletId, Long userId) {
+        if (walletId == null || userId == null) return null;
+        return walletMapper.findByIdAndUserId(walletId, userId)
+                .orElseThrow(() -> new ResourceNotFound("Wallet"));
     }
 
-    private void validateTransactionReq(TransactionReq req) {
+    static void validateTransactionReq(TransactionReq req) {
         switch (req.type()) {
             case EXPENSE -> {
                 if (req.fromWalletId() == null) throw new InvalidTransactionRequestException("Expense requires a fromWalletId");
@@ -363,6 +335,8 @@ public class TransactionService {
                 if (req.fromWalletId() == null || req.toWalletId() == null)
                     throw new InvalidTransactionRequestException("Transfer requires both fromWalletId and toWalletId");
                 if (req.categoryId() != null) throw new InvalidTransactionRequestException("Transfer cannot have a categoryId");
+                if (req.fromWalletId().equals(req.toWalletId()))
+                    throw new InvalidTransactionRequestException("Transfer requires different fromWalletId and toWalletId");
             }
             default -> throw new UnsupportedTransactionTypeException();
         }
@@ -402,71 +376,4 @@ public class TransactionService {
         }
     }
 
-    private BigDecimal computeDelta(TransactionType type, BigDecimal oldAmount, BigDecimal newAmount) {
-        return switch (type) {
-            case INCOME -> newAmount.subtract(oldAmount);
-            case EXPENSE -> oldAmount.subtract(newAmount);
-            case TRANSFER -> null;
-        };
-    }
-
-    private void applyTransferDelta(Long userId,
-                                    WalletEntity from,
-                                    WalletEntity to,
-                                    BigDecimal oldAmount,
-                                    BigDecimal newAmount) {
-
-        BigDecimal fromDelta = oldAmount.subtract(newAmount);
-        BigDecimal toDelta = newAmount.subtract(oldAmount);
-
-        if (fromDelta.compareTo(BigDecimal.ZERO) > 0)
-            increaseBalance(userId, from, fromDelta);
-        else if (fromDelta.compareTo(BigDecimal.ZERO) < 0)
-            decreaseBalance(userId, from, fromDelta.abs());
-
-        if (toDelta.compareTo(BigDecimal.ZERO) > 0)
-            increaseBalance(userId, to, toDelta);
-        else if (toDelta.compareTo(BigDecimal.ZERO) < 0)
-            decreaseBalance(userId, to, toDelta.abs());
-    }
-
-    private void applyDelta(TransactionType type,
-                            WalletEntity oldFrom,
-                            WalletEntity oldTo,
-                            WalletEntity newFrom,
-                            WalletEntity newTo,
-                            BigDecimal oldAmount,
-                            BigDecimal newAmount,
-                            Long userId) {
-
-
-        if (type == TransactionType.TRANSFER) {
-            applyTransferDelta(userId, oldFrom, oldTo, oldAmount, newAmount);
-            return;
-        }
-
-        BigDecimal delta = computeDelta(type, oldAmount, newAmount);
-        if (delta == null || delta.compareTo(BigDecimal.ZERO) == 0) return;
-
-        switch (type) {
-            case INCOME -> {
-                WalletEntity wallet = (newTo != null) ? newTo : oldTo;
-
-                if (delta.compareTo(BigDecimal.ZERO) > 0)
-                    increaseBalance(userId, wallet, delta);
-                else
-                    decreaseBalance(userId, wallet, delta.abs());
-            }
-
-            case EXPENSE -> {
-                WalletEntity wallet = (newFrom != null) ? newFrom : oldFrom;
-
-                if (delta.compareTo(BigDecimal.ZERO) > 0)
-                    increaseBalance(userId, wallet, delta);
-                else
-                    decreaseBalance(userId, wallet, delta.abs());
-            }
-        }
-    }
-
 }
@@ -0,0 +1,71 @@
+package com.adrvil.wealthcheck.service;
+
+import com.adrvil.wealthcheck.mapper.WalletBalanceMapper;
+import com.adrvil.wealthcheck.mapper.WalletMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Backfills wallet_balance_daily from transactions for wallets whose rows do
+ * not add up to their balance, on one node at a time. After that, transaction
+ * writes and WalletService keep it current.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WalletBalanceSnapshotService {
+    private final WalletBalanceMapper mapper;
+    private final WalletMapper walletMapper;
+    private final PlatformTransactionManager transactionManager;
+
+    // The backfill lock is held by an outer transaction; each wallet commits on its own
+    private TransactionTemplate lockTemplate;
+    private TransactionTemplate walletTemplate;
+
+    @PostConstruct
+    void init() {
+        lockTemplate = new TransactionTemplate(transactionManager);
+        walletTemplate = new TransactionTemplate(transactionManager);
+        walletTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // Backfill: db/006 creates the table empty. Wallets are picked by their own rows,
+    // not by the table being empty, so writes that land first skip no one.
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        CompletableFuture.runAsync(() -> {
+            try {
+                lockTemplate.executeWithoutResult(status -> {
+                    if (!mapper.tryLockBackfill()) {
+                        log.info("Wallet balance backfill skipped, another node holds the lock");
+                        return;
+                    }
+                    List<Long> walletIds = mapper.findIdsToBackfill();
+                    if (walletIds.isEmpty()) return;
+                    log.info("Backfilling balance history for {} wallets", walletIds.size());
+                    int rows = 0;
+                    for (Long walletId : walletIds) {
+                        Integer written = walletTemplate.execute(walletStatus -> {
+                            walletMapper.lockById(walletId);
+                            return mapper.backfill(walletId);
+                        });
+                        rows += written != null ? written : 0;
+                    }
+                    log.info("Wallet balance backfill complete. Wrote {} daily rows.", rows);
+                });
+            } catch (Exception e) {
+                log.error("Wallet balance backfill failed", e);
+            }
+        });
+    }
+}
@@ -0,0 +1,105 @@
+package com.adrvil.wealthcheck.service;
+
+import com.adrvil.wealthcheck.dto.WalletLedgerDriftDto;
+import com.adrvil.wealthcheck.mapper.WalletLedgerMapper;
+import com.adrvil.wealthcheck.mapper.WalletMapper;
+import com.adrvil.wealthcheck.utils.AppZone;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Background upkeep for wallet_ledger: seeds wallets it does not cover yet on
+ * startup, folds finished rows into wallet_checkpoint so ledger balances stay a
+ * short read, and checks the balance column against the ledger. After the seed,
+ * drift is reported, not repaired; the ledger is append-only and a mismatch
+ * means a write path skipped it.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WalletLedgerService {
+    private final WalletLedgerMapper mapper;
+    private final WalletMapper walletMapper;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    private TransactionTemplate transactionTemplate;
+    // The seed lock is held by an outer transaction; each wallet commits on its own
+    private TransactionTemplate walletTemplate;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        walletTemplate = new TransactionTemplate(transactionManager);
+        walletTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // Backfill: db/007 creates the ledger empty, so each wallet needs an opening row.
+    // Wallets are picked by their own ledger, not by the table being empty, so
+    // writes that land first (or an older node's, which skip the ledger) skip no one.
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        CompletableFuture.runAsync(() -> {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (!mapper.tryLockSeed()) {
+                        log.info("Wallet ledger seeding skipped, another node holds the lock");
+                        return;
+                    }
+                    List<WalletLedgerDriftDto> wallets = mapper.findDrift();
+                    if (wallets.isEmpty()) return;
+                    log.info("Seeding the wallet ledger for {} wallets", wallets.size());
+                    int rows = 0;
+                    for (WalletLedgerDriftDto wallet : wallets) {
+                        Integer seeded = walletTemplate.execute(walletStatus -> {
+                            walletMapper.lockById(wallet.walletId());
+                            return mapper.appendAdjustment(wallet.walletId());
+                        });
+                        rows += seeded != null ? seeded : 0;
+                    }
+                    log.info("Wallet ledger seeded. Inserted {} opening rows.", rows);
+                });
+            } catch (Exception e) {
+                log.error("Wallet ledger seeding failed", e);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.ledger.checkpoint-delay:PT5M}")
+    public void checkpoint() {
+        try {
+            Integer wallets = transactionTemplate.execute(status ->
+                    mapper.tryLockCheckpoint() ? mapper.checkpoint() : null);
+            if (wallets == null) {
+                log.debug("Wallet ledger checkpoint skipped, another node holds the lock");
+                return;
+            }
+            log.debug("Wallet ledger checkpoint complete. Folded {} wallets.", wallets);
+        } catch (Exception e) {
+            log.error("Wallet ledger checkpoint failed", e);
+        }
+    }
+
+    @Scheduled(cron = "${wallet.ledger.check-cron:0 15 4 * * ?}", zone = AppZone.ID)
+    public void check() {
+        List<WalletLedgerDriftDto> drift = mapper.findDrift();
+        for (WalletLedgerDriftDto wallet : drift) {
+            log.warn("Wallet ledger drift - Wallet: {}, User: {}, Balance: {}, Ledger: {}",
+                    wallet.walletId(), wallet.userId(), wallet.balance(), wallet.ledgerBalance());
+        }
+        meterRegistry.counter("wallet.ledger.drift").increment(drift.size());
+        log.info("Wallet ledger check complete. {} wallets drifted.", drift.size());
+    }
+}
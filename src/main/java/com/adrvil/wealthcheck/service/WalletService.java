@@ -4,34 +4,52 @@ import com.adrvil.wealthcheck.common.exception.BadRequestException;
 import com.adrvil.wealthcheck.common.exception.ResourceNotFound;
 import com.adrvil.wealthcheck.converter.WalletDtoMapper;
 import com.adrvil.wealthcheck.dto.request.WalletReq;
+import com.adrvil.wealthcheck.dto.response.WalletBalanceHistoryRes;
+import com.adrvil.wealthcheck.dto.response.WalletBalancePointRes;
+import com.adrvil.wealthcheck.dto.response.WalletBalanceRes;
 import com.adrvil.wealthcheck.dto.response.WalletRes;
 import com.adrvil.wealthcheck.entity.TransactionEntity;
 import com.adrvil.wealthcheck.entity.WalletEntity;
 import com.adrvil.wealthcheck.enums.CacheName;
+import com.adrvil.wealthcheck.enums.HistoryGranularity;
 import com.adrvil.wealthcheck.enums.TransactionType;
 import com.adrvil.wealthcheck.mapper.CategoryMapper;
 import com.adrvil.wealthcheck.mapper.TransactionMapper;
+import com.adrvil.wealthcheck.mapper.TransactionMonthTotalsMapper;
+import com.adrvil.wealthcheck.mapper.WalletBalanceMapper;
+import com.adrvil.wealthcheck.mapper.WalletLedgerMapper;
 import com.adrvil.wealthcheck.mapper.WalletMapper;
+import com.adrvil.wealthcheck.utils.AppZone;
 import com.adrvil.wealthcheck.utils.CacheUtil;
+import com.fasterxml.jackson.core.type.TypeReference;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class WalletService {
+    private static final TypeReference<List<WalletRes>> WALLET_LIST = new TypeReference<>() {};
 
     private final AccountService accountService;
     private final WalletMapper walletMapper;
     private final CacheUtil cacheUtil;
     private final CategoryMapper categoryMapper;
     private final TransactionMapper transactionMapper;
+    private final TransactionMonthTotalsMapper monthTotalsMapper;
+    private final WalletBalanceMapper walletBalanceMapper;
+    private final WalletLedgerMapper walletLedgerMapper;
+
+    @Value("${wallet.balance-history.max-points:500}")
+    private int balanceHistoryMaxPoints;
 
     @Transactional
     public WalletRes createWallet(WalletReq walletDtoReq) {
@@ -65,12 +83,19 @@ public class WalletService {
                     .build();
 
             transactionMapper.insert(initialTransaction);
+            // Plain insert, so book it into the month totals the write statements would have updated
+            if (initialBalanceCategoryId != null) {
+                monthTotalsMapper.lockShared(userId);
+                monthTotalsMapper.applyDelta(userId, LocalDate.now(AppZone.ZONE).withDayOfMonth(1),
+                        TransactionType.INCOME, initialBalanceCategoryId, initialBalance, 1);
+            }
+            walletBalanceMapper.reconcile(wallet.getId(), userId, LocalDate.now(AppZone.ZONE));
+            walletLedgerMapper.append(wallet.getId(), userId, initialTransaction.getId(), initialBalance);
         }
 
         accountService.finishOnboarding(userId);
 
-        cacheUtil.evict(CacheName.USER_WALLETS.getValue(), String.valueOf(userId));
-        cacheUtil.evictOverviewCaches(userId);
+        cacheUtil.invalidateUserCaches(userId);
 
         log.info("Wallet created successfully - ID: {}, User: {}, Name: {}, Initial Balance: {}",
                 wallet.getId(), userId, walletDtoReq.name(), initialBalance);
@@ -80,9 +105,9 @@ public class WalletService {
 
     public WalletRes getWalletById(Long id) {
         Long userId = accountService.getCurrentAccountIdOrThrow();
-        String cacheKey = userId + ":" + id;
+        String cacheKey = cacheUtil.userKey(userId, id);
 
-        WalletRes cached = cacheUtil.get(CacheName.WALLET.getValue(), cacheKey);
+        WalletRes cached = cacheUtil.get(CacheName.WALLET.getValue(), cacheKey, WalletRes.class);
         if (cached != null) {
             return cached;
         }
@@ -107,7 +132,9 @@ public class WalletService {
     public List<WalletRes> getAllWallets() {
         Long userId = accountService.getCurrentAccountIdOrThrow();
 
-        List<WalletRes> cached = cacheUtil.get(CacheName.USER_WALLETS.getValue(), String.valueOf(userId));
+        String cacheKey = cacheUtil.userKey(userId);
+
+        List<WalletRes> cached = cacheUtil.get(CacheName.USER_WALLETS.getValue(), cacheKey, WALLET_LIST);
         if (cached != null) {
             return cached;
         }
@@ -122,7 +149,7 @@ public class WalletService {
                 .map(WalletDtoMapper::toDto)
                 .toList();
 
-        cacheUtil.put(CacheName.USER_WALLETS.getValue(), String.valueOf(userId), walletResList);
+        cacheUtil.put(CacheName.USER_WALLETS.getValue(), cacheKey, walletResList);
 
         return walletResList;
     }
@@ -130,7 +157,7 @@ public class WalletService {
     public List<WalletRes> getAllSoftDeletedWallets() {
         Long userId = accountService.getCurrentAccountIdOrThrow();
 
-        List<WalletRes> cached = cacheUtil.get(CacheName.DELETED_USER_WALLETS.getValue(), String.valueOf(userId));
+        List<WalletRes> cached = cacheUtil.get(CacheName.DELETED_USER_WALLETS.getValue(), String.valueOf(userId), WALLET_LIST);
         if (cached != null) {
             return cached;
         }
@@ -150,6 +177,7 @@ public class WalletService {
         return walletResList;
     }
 
+    @Transactional
     public WalletRes restoreWallet(Long id) {
         Long userId = accountService.getCurrentAccountIdOrThrow();
         log.debug("Restoring wallet - ID: {}, User: {}", id, userId);
@@ -165,21 +193,53 @@ public class WalletService {
             throw new IllegalStateException("Category is not soft deleted");
         }
 
+        // While still deleted the ledger's target is the live transactions, so a
+        // wallet the seed has not reached yet restores to those, not an empty ledger
+        walletMapper.lockById(id);
+        walletLedgerMapper.appendAdjustment(id);
+
         if (walletMapper.restoreWallet(id, userId) == 0) {
             log.warn("Wallet restore failed - ID: {}, User: {}", id, userId);
             throw new ResourceNotFound("Wallet");
         }
 
         walletMapper.restoreWallet(id, userId);
-        BigDecimal netBalance = transactionMapper.calculateNetBalanceForWallet(id, userId);
+        BigDecimal netBalance = walletLedgerMapper.getBalance(id, userId);
         walletMapper.updateBalance(id, userId, netBalance);
 
-        evictAllWalletCaches(userId, id);
+        evictAllWalletCaches(userId);
 
         return WalletDtoMapper.toDto(walletMapper.findByIdAndUserId(id, userId)
                 .orElseThrow(() -> new ResourceNotFound("Wallet")));
     }
 
+    public WalletBalanceRes getBalanceAsOf(Long id, LocalDate asOf) {
+        Long userId = accountService.getCurrentAccountIdOrThrow();
+        LocalDate day = asOf != null ? asOf : LocalDate.now(AppZone.ZONE);
+        findOwnedWalletOrThrow(id, userId);
+
+        log.debug("Getting wallet balance - ID: {}, User: {}, As of: {}", id, userId, day);
+        return new WalletBalanceRes(id, day, walletBalanceMapper.getBalanceAsOf(id, userId, day));
+    }
+
+    public WalletBalanceHistoryRes getBalanceHistory(Long id, LocalDate from, LocalDate to, HistoryGranularity requested) {
+        Long userId = accountService.getCurrentAccountIdOrThrow();
+        LocalDate today = LocalDate.now(AppZone.ZONE);
+        LocalDate end = to.isAfter(today) ? today : to;
+        if (from.isAfter(end)) {
+            throw new BadRequestException("from must not be after to or today");
+        }
+        findOwnedWalletOrThrow(id, userId);
+
+        HistoryGranularity granularity = requested.fitting(from, end, balanceHistoryMaxPoints);
+        log.debug("Getting wallet balance history - ID: {}, User: {}, {} to {} by {}",
+                id, userId, from, end, granularity.getValue());
+
+        List<WalletBalancePointRes> points = walletBalanceMapper.getHistory(id, userId, from, end, granularity.getValue());
+        return new WalletBalanceHistoryRes(id, from, end, granularity.getValue(), points);
+    }
+
+    @Transactional
     public WalletRes updateWallet(Long id, WalletReq walletDtoReq) {
         Long userId = accountService.getCurrentAccountIdOrThrow();
 
@@ -191,8 +251,11 @@ public class WalletService {
             log.warn("Wallet update failed - ID: {}, User: {}", id, userId);
             throw new ResourceNotFound("Wallet");
         }
+        // A balance edit is not a transaction; book the difference on today and in the ledger
+        walletBalanceMapper.reconcile(id, userId, LocalDate.now(AppZone.ZONE));
+        walletLedgerMapper.appendAdjustment(id);
 
-        evictAllWalletCaches(userId, id);
+        evictAllWalletCaches(userId);
 
         log.info("Wallet updated successfully - ID: {}, User: {}", id, userId);
 
@@ -220,7 +283,7 @@ public class WalletService {
             throw new ResourceNotFound("Wallet");
         }
 
-        evictAllWalletCaches(userId, id);
+        evictAllWalletCaches(userId);
 
         log.info("Wallet soft deleted successfully - ID: {}, User: {}, Name: {}",
                 id, userId, wallet.getName());
@@ -228,6 +291,7 @@ public class WalletService {
         return WalletDtoMapper.toDto(wallet);
     }
 
+    @Transactional
     public void permanentDeleteWallet(Long id) {
         Long userId = accountService.getCurrentAccountIdOrThrow();
         log.debug(
@@ -254,8 +318,10 @@ public class WalletService {
             );
             throw new ResourceNotFound("Category");
         }
+        walletBalanceMapper.deleteForWallet(id, userId);
+        walletLedgerMapper.deleteForWallet(id, userId);
 
-        evictAllWalletCaches(userId, id);
+        evictAllWalletCaches(userId);
 
         log.info(
                 "Transaction permanently deleted - ID: {}, User: {}",
@@ -264,10 +330,18 @@ public class WalletService {
     }
 
     //    Helper
-    private void evictAllWalletCaches(Long userId, Long walletId) {
-        cacheUtil.evictWalletCaches(userId, walletId);
-        cacheUtil.evict(CacheName.USER_WALLETS.getValue(), String.valueOf(userId));
-        cacheUtil.evict(CacheName.DELETED_USER_WALLETS.getValue(), String.valueOf(userId));
-        cacheUtil.evictOverviewCaches(userId);
+    private void findOwnedWalletOrThrow(Long id, Long userId) {
+        walletMapper.findByIdAndUserId(id, userId)
+                .orElseThrow(() -> {
+                    log.warn("Wallet not found - ID: {}, User: {}", id, userId);
+                    return new ResourceNotFound("Wallet");
+                });
+    }
+
+    private void evictAllWalletCaches(Long userId) {
+        cacheUtil.evictionBatch()
+                .evict(CacheName.DELETED_USER_WALLETS, String.valueOf(userId))
+                .userCaches(userId)
+                .flush();
     }
 }
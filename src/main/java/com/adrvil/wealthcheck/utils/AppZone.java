@@ -0,0 +1,16 @@
+package com.adrvil.wealthcheck.utils;
+
+import java.time.ZoneId;
+
+/**
+ * The zone days and months are bucketed in: transaction days and months, net
+ * worth and wallet balance history, imports and the nightly jobs. The SQL
+ * buckets with the literal 'Asia/Manila' (AT TIME ZONE), so change both together.
+ */
+public final class AppZone {
+    public static final String ID = "Asia/Manila";
+    public static final ZoneId ZONE = ZoneId.of(ID);
+
+    private AppZone() {
+    }
+}
@@ -0,0 +1,98 @@
+package com.adrvil.wealthcheck.utils;
+
+import com.adrvil.wealthcheck.enums.CacheName;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Collects cache entries to evict across cache names, plus users whose
+ * generational entries are all invalidated, and applies them with a single
+ * Redis round trip on {@link #flush()}. Obtain one from
+ * {@link CacheUtil#evictionBatch()}; a batch is meant for one unit of work.
+ * <p>
+ * Inside a Spring transaction every caller gets the same batch, {@link #flush()}
+ * does nothing, and the collected evictions and puts are applied once after
+ * commit (or dropped on rollback), so no reader can re-cache the pre-commit state.
+ */
+public class CacheEvictionBatch {
+    private final CacheUtil cacheUtil;
+    private final boolean deferred;
+    private final Map<String, Set<String>> keys = new LinkedHashMap<>();
+    private final Map<String, Map<String, Object>> puts = new LinkedHashMap<>();
+    private final Set<Long> userIds = new LinkedHashSet<>();
+    private final List<UserPut> userPuts = new ArrayList<>();
+
+    private record UserPut(String cacheName, Long userId, Object id, Object value) {
+    }
+
+    CacheEvictionBatch(CacheUtil cacheUtil, boolean deferred) {
+        this.cacheUtil = cacheUtil;
+        this.deferred = deferred;
+    }
+
+    public CacheEvictionBatch evict(CacheName cacheName, String key) {
+        evict(cacheName.getValue(), key);
+        return this;
+    }
+
+    // Same as CacheUtil.invalidateUserCaches: every entry keyed by CacheUtil.userKey
+    public CacheEvictionBatch userCaches(Long userId) {
+        userIds.add(userId);
+        return this;
+    }
+
+    // Write-through for a generational entry, keyed after this batch's generation bumps
+    public CacheEvictionBatch putForUser(CacheName cacheName, Long userId, Object id, Object value) {
+        putForUser(cacheName.getValue(), userId, id, value);
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return keys.isEmpty() && puts.isEmpty() && userIds.isEmpty() && userPuts.isEmpty();
+    }
+
+    public void flush() {
+        if (deferred) return; // applied by the afterCommit hook CacheUtil registered
+        apply();
+    }
+
+    // For callers whose write has already committed: a cache failure is logged and counted, not thrown
+    public void flushCommitted() {
+        if (deferred) return;
+        cacheUtil.applyCommitted(this);
+    }
+
+    // The last call for a key wins: a put after an evict replaces it and vice versa
+    void evict(String cacheName, String key) {
+        Map<String, Object> pending = puts.get(cacheName);
+        if (pending != null) pending.remove(key);
+        keys.computeIfAbsent(cacheName, name -> new LinkedHashSet<>()).add(key);
+    }
+
+    void put(String cacheName, String key, Object value) {
+        Set<String> pending = keys.get(cacheName);
+        if (pending != null) pending.remove(key);
+        puts.computeIfAbsent(cacheName, name -> new LinkedHashMap<>()).put(key, value);
+    }
+
+    void putForUser(String cacheName, Long userId, Object id, Object value) {
+        userPuts.add(new UserPut(cacheName, userId, id, value));
+    }
+
+    void apply() {
+        if (isEmpty()) return;
+        cacheUtil.invalidate(userIds, keys);
+        puts.forEach((cacheName, entries) -> entries.forEach((key, value) -> cacheUtil.putNow(cacheName, key, value)));
+        // Keyed only now, so write-through values land in the generation the bump just started
+        userPuts.forEach(put -> cacheUtil.putNow(put.cacheName(), cacheUtil.userKey(put.userId(), put.id()), put.value()));
+        keys.clear();
+        puts.clear();
+        userIds.clear();
+        userPuts.clear();
+    }
+}
@@ -1,38 +1,199 @@
 package com.adrvil.wealthcheck.utils;
 
 import com.adrvil.wealthcheck.enums.CacheName;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.SerializationException;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Two-tier cache access: a bounded in-process Caffeine cache (L1) in front of
+ * the Redis caches (L2). Every invalidation is applied to both tiers and
+ * published on {@value #INVALIDATION_CHANNEL}, so the other app nodes drop
+ * their L1 copies too; the short L1 TTL bounds anything a lost message misses.
+ */
+@Slf4j
 @Component
 @RequiredArgsConstructor
 public class CacheUtil {
+    private static final String GENERATION_KEY_PREFIX = "cache-generation::";
+    private static final String INVALIDATION_CHANNEL = "cache-invalidation";
+
     private final CacheManager cacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final MeterRegistry meterRegistry;
+
+    // How long this instance trusts its copy of a generation before re-reading Redis,
+    // which bounds how long another instance's bump can go unseen here
+    @Value("${cache.generation.local-ttl:1s}")
+    private Duration generationLocalTtl;
+
+    @Value("${cache.local.max-size:10000}")
+    private long localMaxSize;
+
+    @Value("${cache.local.ttl:30s}")
+    private Duration localTtl;
+
+    // Cache names (CacheName values) that skip L1 and always read Redis
+    @Value("${cache.local.disabled:}")
+    private Set<String> localDisabled;
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private com.github.benmanes.caffeine.cache.Cache<Long, Long> localGenerations;
+    private com.github.benmanes.caffeine.cache.Cache<String, Object> localEntries;
+
+    @PostConstruct
+    void init() {
+        localGenerations = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(generationLocalTtl)
+                .build();
+
+        localEntries = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(localTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, localEntries, "cache.local");
+
+        listenerContainer.addMessageListener((message, pattern) -> onInvalidation(message),
+                new ChannelTopic(INVALIDATION_CHANNEL));
+    }
 
     @SuppressWarnings("unchecked")
     public <T> T get(String cacheName, String key) {
+        boolean local = isLocal(cacheName);
+        if (local) {
+            Object value = localEntries.getIfPresent(localKey(cacheName, key));
+            countGet(cacheName, "l1", value != null);
+            if (value != null) return (T) value;
+        }
+
         Cache cache = cacheManager.getCache(cacheName);
-        if (cache != null) {
+        if (cache == null) return null;
+
+        Object value;
+        try {
             Cache.ValueWrapper wrapper = cache.get(key);
-            return wrapper != null ? (T) wrapper.get() : null;
+            value = wrapper != null ? wrapper.get() : null;
+        } catch (SerializationException e) {
+            // Written by an older codec or DTO shape; the caller reloads and overwrites it
+            log.debug("Treating undecodable cache entry as a miss - Cache: {}, Key: {}", cacheName, key);
+            value = null;
+        }
+        countGet(cacheName, "l2", value != null);
+        if (value != null && local) {
+            localEntries.put(localKey(cacheName, key), value);
+        }
+        return (T) value;
+    }
+
+    /**
+     * Reads {@code key} from each cache with L1 first and one MGET for everything
+     * L1 missed. The result is aligned with {@code cacheNames}, null for misses.
+     */
+    public List<Object> getAll(List<String> cacheNames, String key) {
+        List<Object> values = new ArrayList<>(Collections.nCopies(cacheNames.size(), null));
+        List<Integer> remote = new ArrayList<>();
+        List<byte[]> redisKeys = new ArrayList<>();
+
+        for (int i = 0; i < cacheNames.size(); i++) {
+            String cacheName = cacheNames.get(i);
+            if (isLocal(cacheName)) {
+                Object value = localEntries.getIfPresent(localKey(cacheName, key));
+                countGet(cacheName, "l1", value != null);
+                if (value != null) {
+                    values.set(i, value);
+                    continue;
+                }
+            }
+            if (cacheManager.getCache(cacheName) instanceof RedisCache redisCache) {
+                remote.add(i);
+                redisKeys.add((redisCache.getCacheConfiguration().getKeyPrefixFor(cacheName) + key)
+                        .getBytes(StandardCharsets.UTF_8));
+            } else {
+                values.set(i, get(cacheName, key));
+            }
         }
-        return null;
+        if (redisKeys.isEmpty()) return values;
+
+        List<byte[]> raw = redisTemplate.execute((RedisCallback<List<byte[]>>) connection ->
+                connection.stringCommands().mGet(redisKeys.toArray(byte[][]::new)));
+        for (int j = 0; j < remote.size(); j++) {
+            int i = remote.get(j);
+            String cacheName = cacheNames.get(i);
+            Object value = raw != null ? decode(cacheName, raw.get(j)) : null;
+            countGet(cacheName, "l2", value != null);
+            if (value != null) {
+                values.set(i, value);
+                if (isLocal(cacheName)) localEntries.put(localKey(cacheName, key), value);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Typed read for caches with a typed codec in RedisConfig: the value is decoded
+     * straight into {@code type}, so no convertValue pass is needed after a hit.
+     */
+    public <T> T get(String cacheName, String key, Class<T> type) {
+        Object value = get(cacheName, key);
+        return type.isInstance(value) ? type.cast(value) : null;
     }
 
+    /**
+     * Typed read for generic values such as {@code List<TransactionRes>}. Only the raw
+     * type can be checked at runtime; the typed codec decoded the elements as declared.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String cacheName, String key, TypeReference<T> type) {
+        Object value = get(cacheName, key);
+        return TypeFactory.rawClass(type.getType()).isInstance(value) ? (T) value : null;
+    }
+
+    // Inside a transaction the put waits for commit, so uncommitted reads never reach the cache
     public void put(String cacheName, String key, Object value) {
-        Cache cache = cacheManager.getCache(cacheName);
-        if (cache != null) {
-            cache.put(key, value);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            evictionBatch().put(cacheName, key, value);
+            return;
         }
+        putNow(cacheName, key, value);
     }
 
     public void evict(String cacheName, String key) {
-        Cache cache = cacheManager.getCache(cacheName);
-        if (cache != null) {
-            cache.evict(key);
-        }
+        CacheEvictionBatch batch = evictionBatch();
+        batch.evict(cacheName, key);
+        batch.flush();
     }
 
 //    public void evictAll(String cacheName) {
@@ -42,24 +203,168 @@ public class CacheUtil {
 //        }
 //    }
 
-    public void evictOverviewCaches(Long userId) {
-        String key = String.valueOf(userId);
-        evict(CacheName.USER_TRANSACTIONS.getValue(), key);
-        evict(CacheName.OVERVIEW.getValue(), key);
-        evict(CacheName.TOP_TRANSACTIONS.getValue(), key);
-        evict(CacheName.RECENT_TRANSACTIONS.getValue(), key);
-        evict(CacheName.DAILY_NET.getValue(), key);
-        evict(CacheName.TOP_CATEGORIES.getValue(), key);
-        evict(CacheName.MONEY_GOAL.getValue(), key);
-        evict(CacheName.MONEY_BUDGET.getValue(), key);
-    }
-
-    public void evictWalletCaches(Long userId, Long walletId) {
-        if (walletId != null) {
-            evict(CacheName.WALLET.getValue(), userId + ":" + walletId);
+    /**
+     * Outside a transaction, returns a fresh batch that {@code flush()} applies
+     * immediately. Inside one, returns the batch bound to that transaction: all
+     * of it is applied in one round trip after commit and discarded on rollback.
+     */
+    public CacheEvictionBatch evictionBatch() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return new CacheEvictionBatch(this, false);
+        }
+
+        CacheEvictionBatch bound = (CacheEvictionBatch) TransactionSynchronizationManager.getResource(this);
+        if (bound != null) return bound;
+
+        CacheEvictionBatch batch = new CacheEvictionBatch(this, true);
+        TransactionSynchronizationManager.bindResource(this, batch);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                applyCommitted(batch);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(CacheUtil.this);
+            }
+        });
+        return batch;
+    }
+
+    /**
+     * Key for a user's generational entry: {@code userId:g<generation>}. Every
+     * cache holding data derived from the user's transactions or wallet balances
+     * (overview, top/recent, daily net, counts, wallets, single transactions) is
+     * keyed this way, so {@link #invalidateUserCaches} drops all of them with one
+     * INCR and the superseded entries just age out by TTL.
+     */
+    public String userKey(Long userId) {
+        return userId + ":g" + generation(userId);
+    }
+
+    public String userKey(Long userId, Object id) {
+        return userKey(userId) + ":" + id;
+    }
+
+    // Write-through for a generational entry; the key is resolved after any bump in the same unit of work
+    public void putForUser(CacheName cacheName, Long userId, Object id, Object value) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            evictionBatch().putForUser(cacheName.getValue(), userId, id, value);
+            return;
+        }
+        putNow(cacheName.getValue(), userKey(userId, id), value);
+    }
+
+    public void invalidateUserCaches(Long userId) {
+        evictionBatch().userCaches(userId).flush();
+    }
+
+    // The data is committed either way; a cache failure must not turn the request into an error
+    void applyCommitted(CacheEvictionBatch batch) {
+        try {
+            batch.apply();
+        } catch (RuntimeException e) {
+            log.warn("Cache flush after commit failed: {}", e.getMessage());
+            meterRegistry.counter("cache.flush.failures").increment();
+        }
+    }
+
+    long generation(Long userId) {
+        return localGenerations.get(userId, id -> {
+            String stored = redisTemplate.opsForValue().get(GENERATION_KEY_PREFIX + id);
+            return stored != null ? Long.parseLong(stored) : 0L;
+        });
+    }
+
+    void putNow(String cacheName, String key, Object value) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.put(key, value);
         }
-        evict(CacheName.USER_WALLETS.getValue(), String.valueOf(userId));
+        if (isLocal(cacheName)) {
+            localEntries.put(localKey(cacheName, key), value);
+        }
+    }
+
+    /**
+     * Bumps the users' generations and removes all entries in one pipelined round
+     * trip: an INCR per user, one UNLINK (non-blocking delete on the Redis side)
+     * and one PUBLISH telling the other nodes to drop the same L1 entries.
+     * Keys are built with each cache's own prefix, so they match what RedisCache wrote.
+     */
+    void invalidate(Set<Long> userIds, Map<String, Set<String>> entries) {
+        List<String> redisKeys = new ArrayList<>();
+        StringBuilder message = new StringBuilder(instanceId);
+        userIds.forEach(userId -> message.append("\ng ").append(userId));
+        entries.forEach((cacheName, keys) -> {
+            keys.forEach(key -> {
+                localEntries.invalidate(localKey(cacheName, key));
+                message.append("\ne ").append(localKey(cacheName, key));
+            });
+
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache instanceof RedisCache redisCache) {
+                String prefix = redisCache.getCacheConfiguration().getKeyPrefixFor(cacheName);
+                keys.forEach(key -> redisKeys.add(prefix + key));
+            } else if (cache != null) {
+                keys.forEach(cache::evict);
+            }
+        });
+
+        if (userIds.isEmpty() && redisKeys.isEmpty()) return;
+
+        List<Long> users = List.copyOf(userIds);
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection redis = (StringRedisConnection) connection;
+            users.forEach(userId -> redis.incr(GENERATION_KEY_PREFIX + userId));
+            if (!redisKeys.isEmpty()) redis.unlink(redisKeys.toArray(String[]::new));
+            redis.publish(INVALIDATION_CHANNEL, message.toString());
+            return null;
+        });
+
+        for (int i = 0; i < users.size(); i++) {
+            long generation = ((Number) results.get(i)).longValue();
+            localGenerations.asMap().merge(users.get(i), generation, Math::max);
+        }
+        log.debug("Bumped cache generation for {} users, evicted {} cache keys", users.size(), redisKeys.size());
     }
 
+    // Applies another node's invalidation to this node's L1 and generation copies
+    private void onInvalidation(Message message) {
+        String[] lines = new String(message.getBody(), StandardCharsets.UTF_8).split("\n");
+        if (lines[0].equals(instanceId)) return;
 
+        for (int i = 1; i < lines.length; i++) {
+            String entry = lines[i].substring(2);
+            switch (lines[i].charAt(0)) {
+                case 'g' -> localGenerations.invalidate(Long.valueOf(entry));
+                case 'e' -> localEntries.invalidate(entry);
+                default -> log.warn("Ignoring unknown cache invalidation entry: {}", lines[i]);
+            }
+        }
+    }
+
+    private Object decode(String cacheName, byte[] bytes) {
+        if (bytes == null || !(cacheManager.getCache(cacheName) instanceof RedisCache redisCache)) return null;
+        try {
+            return redisCache.getCacheConfiguration().getValueSerializationPair().read(ByteBuffer.wrap(bytes));
+        } catch (SerializationException e) {
+            log.debug("Treating undecodable cache entry as a miss - Cache: {}", cacheName);
+            return null;
+        }
+    }
+
+    private boolean isLocal(String cacheName) {
+        return !localDisabled.contains(cacheName);
+    }
+
+    private static String localKey(String cacheName, String key) {
+        return cacheName + "::" + key;
+    }
+
+    private void countGet(String cacheName, String tier, boolean hit) {
+        meterRegistry.counter("cache.tier.gets",
+                "cache", cacheName, "tier", tier, "result", hit ? "hit" : "miss").increment();
+    }
 }
@@ -0,0 +1,36 @@
+package com.adrvil.wealthcheck.utils;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * RFC 4180 writer counterpart of {@link CsvReader}: fields containing a comma,
+ * quote or line break are quoted, nulls are written as empty fields.
+ */
+public class CsvWriter {
+    private final Writer out;
+
+    public CsvWriter(Writer out) {
+        this.out = out;
+    }
+
+    public void writeRow(Object... fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) out.write(',');
+            if (fields[i] != null) writeField(fields[i].toString());
+        }
+        out.write("\r\n");
+    }
+
+    private void writeField(String value) throws IOException {
+        boolean needsQuotes = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!needsQuotes) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        out.write(value.replace("\"", "\"\""));
+        out.write('"');
+    }
+}
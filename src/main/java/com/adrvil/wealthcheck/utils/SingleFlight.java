@@ -0,0 +1,138 @@
+package com.adrvil.wealthcheck.utils;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Request coalescing for cache misses: concurrent callers with the same key
+ * share one computation. In-process this is a map of in-flight futures; with
+ * {@code cache.single-flight.redis-lock} on, the leader also takes a short
+ * Redis lock so one node computes while the others poll the cache for its result.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SingleFlight {
+    private static final String LOCK_KEY_PREFIX = "single-flight::";
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(50);
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    @Value("${cache.single-flight.redis-lock:false}")
+    private boolean redisLock;
+
+    // Also how long other nodes wait for the lock holder before computing themselves
+    @Value("${cache.single-flight.lock-ttl:5s}")
+    private Duration lockTtl;
+
+    /**
+     * Returns {@code cacheLookup}'s value if present, otherwise runs {@code loader}
+     * once per key across concurrent callers. The loader is expected to put its
+     * result in the cache; the lookup is repeated once leadership is won, so a
+     * flight that finished just before does not cause a second computation.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Supplier<T> cacheLookup, Supplier<T> loader) {
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            count("joined");
+            return (T) join(existing);
+        }
+
+        try {
+            T value = lead(key, cacheLookup, loader);
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private <T> T lead(String key, Supplier<T> cacheLookup, Supplier<T> loader) {
+        T cached = cacheLookup.get();
+        if (cached != null) {
+            count("cached");
+            return cached;
+        }
+        if (!redisLock) {
+            count("computed");
+            return loader.get();
+        }
+
+        String lockKey = LOCK_KEY_PREFIX + key;
+        String token = UUID.randomUUID().toString();
+        long deadline = System.nanoTime() + lockTtl.toNanos();
+        while (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(lockKey, token, lockTtl))) {
+            if (System.nanoTime() > deadline) {
+                log.debug("Gave up waiting for single-flight lock: {}", key);
+                count("lock-timeout");
+                return loader.get();
+            }
+            sleep();
+            cached = cacheLookup.get();
+            if (cached != null) {
+                count("lock-waited");
+                return cached;
+            }
+        }
+
+        try {
+            cached = cacheLookup.get();
+            if (cached != null) {
+                count("cached");
+                return cached;
+            }
+            count("computed");
+            return loader.get();
+        } finally {
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(lockKey), token);
+        }
+    }
+
+    private static Object join(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(POLL_INTERVAL);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for single-flight lock", e);
+        }
+    }
+
+    private void count(String result) {
+        meterRegistry.counter("cache.single-flight", "result", result).increment();
+    }
+}
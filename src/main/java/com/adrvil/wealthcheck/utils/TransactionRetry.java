@@ -0,0 +1,101 @@
+package com.adrvil.wealthcheck.utils;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs a unit of work in its own DB transaction and re-runs it when PostgreSQL
+ * aborts it as a deadlock victim (40P01) or a serialization failure (40001).
+ * Waits between attempts are exponential with full jitter, so writers that
+ * collided do not collide again in lockstep. Every retry is counted in
+ * {@code transaction.retry}, tagged by operation and reason.
+ * <p>
+ * Must not be called inside an existing transaction: the aborted outer
+ * transaction could not be retried from here.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TransactionRetry {
+    private static final String DEADLOCK = "40P01";
+    private static final String SERIALIZATION_FAILURE = "40001";
+
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${transaction.retry.max-attempts:4}")
+    private int maxAttempts;
+
+    @Value("${transaction.retry.initial-backoff:20ms}")
+    private Duration initialBackoff;
+
+    @Value("${transaction.retry.max-backoff:500ms}")
+    private Duration maxBackoff;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public <T> T execute(String operation, Supplier<T> work) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (RuntimeException e) {
+                String reason = retryReason(e);
+                if (reason == null || attempt >= maxAttempts) throw e;
+
+                Duration backoff = backoff(attempt);
+                meterRegistry.counter("transaction.retry", "operation", operation, "reason", reason).increment();
+                log.warn("Retrying {} after {} - Attempt: {}/{}, Backoff: {} ms",
+                        operation, reason, attempt, maxAttempts, backoff.toMillis());
+                sleep(backoff);
+            }
+        }
+    }
+
+    public void executeWithoutResult(String operation, Runnable work) {
+        execute(operation, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    // Full jitter: uniform in [0, min(max, initial * 2^(attempt - 1))]
+    private Duration backoff(int attempt) {
+        long cap = Math.min(maxBackoff.toMillis(), initialBackoff.toMillis() << Math.min(attempt - 1, 20));
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(cap + 1));
+    }
+
+    private static String retryReason(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLException sql) {
+                if (DEADLOCK.equals(sql.getSQLState())) return "deadlock";
+                if (SERIALIZATION_FAILURE.equals(sql.getSQLState())) return "serialization";
+            }
+        }
+        return null;
+    }
+
+    private static void sleep(Duration backoff) {
+        try {
+            Thread.sleep(backoff);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to retry", e);
+        }
+    }
+}
@@ -0,0 +1,4 @@
+-- Supports keyset pagination of the transaction list:
+-- ORDER BY transaction_date DESC, id DESC with (transaction_date, id) < (:date, :id)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_transactions_user_date_id
+    ON transactions (user_id, soft_deleted, transaction_date DESC, id DESC);
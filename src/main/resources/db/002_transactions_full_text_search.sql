@@ -0,0 +1,18 @@
+-- Full-text search over transaction title and notes.
+-- The generated column keeps the tsvector in step with every insert/update;
+-- title terms rank above notes terms. 'simple' config: no stemming or stop
+-- words, so prefix matching behaves the same for English and Filipino text.
+ALTER TABLE transactions
+    ADD COLUMN IF NOT EXISTS search_tsv tsvector
+        GENERATED ALWAYS AS (
+            setweight(to_tsvector('simple', COALESCE(title, '')), 'A') ||
+            setweight(to_tsvector('simple', COALESCE(notes, '')), 'B')
+        ) STORED;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_transactions_search_tsv
+    ON transactions USING GIN (search_tsv);
+
+-- Trigram index on title stays for the fuzzy fallback (title % :search)
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_transactions_title_trgm
+    ON transactions USING GIN (title gin_trgm_ops);
@@ -0,0 +1,5 @@
+-- Supports the per-type top transactions on the overview:
+-- WHERE type = :type AND soft_deleted = FALSE ORDER BY amount DESC LIMIT :n
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_transactions_user_type_amount
+    ON transactions (user_id, type, amount DESC)
+    WHERE soft_deleted = FALSE;
@@ -0,0 +1,14 @@
+-- Per-user monthly income/expense totals by category, kept in step by the
+-- transaction write statements (TransactionMapper.xml) and the import.
+-- month is the first day of the transaction_date's month in Asia/Manila.
+-- No foreign keys: rows outlive purged categories until the nightly rebuild
+-- (TransactionMonthTotalsService), which also backfills an empty table on startup.
+CREATE TABLE IF NOT EXISTS transaction_month_totals (
+    user_id     BIGINT           NOT NULL,
+    month       DATE             NOT NULL,
+    type        transaction_type NOT NULL,
+    category_id BIGINT           NOT NULL,
+    total       NUMERIC          NOT NULL DEFAULT 0,
+    txn_count   INTEGER          NOT NULL DEFAULT 0,
+    PRIMARY KEY (user_id, month, type, category_id)
+);
@@ -0,0 +1,11 @@
+-- Per-user daily change in net worth (sum of wallet balances). A day's net worth
+-- is the running sum of change up to and including it. Writes add their
+-- income/expense on the transaction_date's day in Asia/Manila; the nightly
+-- reconcile (NetWorthSnapshotService) books wallet-side changes such as opening
+-- balances on the day it runs, and an empty table is backfilled on startup.
+CREATE TABLE IF NOT EXISTS net_worth_daily (
+    user_id BIGINT  NOT NULL,
+    day     DATE    NOT NULL,
+    change  NUMERIC NOT NULL DEFAULT 0,
+    PRIMARY KEY (user_id, day)
+);
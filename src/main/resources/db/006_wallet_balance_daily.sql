@@ -0,0 +1,12 @@
+-- Per-wallet daily balance change. A wallet's balance as of a day is the sum of
+-- change up to and including it. Transaction writes add their legs (source
+-- -amount, destination +amount) on the transaction_date's day in Asia/Manila;
+-- WalletService books balance edits and opening balances as they happen, and an
+-- empty table is backfilled on startup (WalletBalanceSnapshotService).
+CREATE TABLE IF NOT EXISTS wallet_balance_daily (
+    wallet_id BIGINT  NOT NULL,
+    day       DATE    NOT NULL,
+    user_id   BIGINT  NOT NULL,
+    change    NUMERIC NOT NULL DEFAULT 0,
+    PRIMARY KEY (wallet_id, day)
+);
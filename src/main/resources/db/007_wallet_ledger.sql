@@ -0,0 +1,25 @@
+-- Append-only record of every wallet balance change, one row per wallet per
+-- write (transaction id is null for imports and balance edits). xid is the
+-- writing transaction; WalletLedgerService folds rows whose transactions have
+-- all finished (xid below the oldest running one) into wallet_checkpoint, so a
+-- wallet's ledger balance is its checkpoint plus the rows from through_xid on.
+CREATE TABLE IF NOT EXISTS wallet_ledger (
+    id             BIGSERIAL   PRIMARY KEY,
+    wallet_id      BIGINT      NOT NULL,
+    user_id        BIGINT      NOT NULL,
+    transaction_id BIGINT,
+    change         NUMERIC     NOT NULL,
+    xid            XID8        NOT NULL DEFAULT pg_current_xact_id(),
+    created_at     TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX IF NOT EXISTS idx_wallet_ledger_wallet_xid
+    ON wallet_ledger (wallet_id, xid);
+
+CREATE TABLE IF NOT EXISTS wallet_checkpoint (
+    wallet_id   BIGINT      PRIMARY KEY,
+    user_id     BIGINT      NOT NULL,
+    balance     NUMERIC     NOT NULL,
+    through_xid XID8        NOT NULL,
+    updated_at  TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
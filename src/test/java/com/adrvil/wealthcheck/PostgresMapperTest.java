@@ -0,0 +1,45 @@
+package com.adrvil.wealthcheck;
+
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.mybatis.spring.boot.test.autoconfigure.MybatisTest;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Mapper slice against a real PostgreSQL: the SQL relies on advisory locks,
+ * xid8, ON CONFLICT and AT TIME ZONE, which H2 does not have. Runs only when
+ * TEST_DATASOURCE_URL points at a scratch database; each context rebuilds the
+ * wealthcheck_test schema there from schema/base.sql and db/*.sql, and
+ * PostgresTestData seeds the rows a test needs.
+ * Tests roll back unless they opt out with {@code @Transactional(propagation = NOT_SUPPORTED)}.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@MybatisTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EnabledIfEnvironmentVariable(named = "TEST_DATASOURCE_URL", matches = ".+")
+@Import(PostgresTestData.class)
+@TestPropertySource(properties = {
+        "spring.datasource.url=${TEST_DATASOURCE_URL}",
+        "spring.datasource.username=${TEST_DATASOURCE_USERNAME:postgres}",
+        "spring.datasource.password=${TEST_DATASOURCE_PASSWORD:}",
+        "spring.datasource.hikari.connection-init-sql=SET search_path TO wealthcheck_test, public",
+        "spring.sql.init.mode=always",
+        "spring.sql.init.schema-locations="
+                + "classpath:schema/base.sql,"
+                + "classpath:db/001_transactions_keyset_index.sql,"
+                + "classpath:db/002_transactions_full_text_search.sql,"
+                + "classpath:db/003_transactions_top_amount_index.sql,"
+                + "classpath:db/004_transaction_month_totals.sql,"
+                + "classpath:db/005_net_worth_daily.sql,"
+                + "classpath:db/006_wallet_balance_daily.sql,"
+                + "classpath:db/007_wallet_ledger.sql"
+})
+public @interface PostgresMapperTest {
+}
@@ -0,0 +1,81 @@
+package com.adrvil.wealthcheck;
+
+import com.adrvil.wealthcheck.enums.TransactionType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Rows for PostgresMapperTest classes, written straight to the tables so no
+ * write path under test runs while seeding. Every account gets a fresh email,
+ * so committed rows from one test never collide with the next.
+ */
+@RequiredArgsConstructor
+public class PostgresTestData {
+    // Wallets are created at midnight Manila time on this day
+    public static final LocalDate WALLET_CREATED = LocalDate.of(2024, 1, 1);
+    // The days seedIncomeThenExpense books its transactions on
+    public static final LocalDate INCOME_DAY = LocalDate.of(2024, 3, 1);
+    public static final LocalDate EXPENSE_DAY = LocalDate.of(2024, 3, 5);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public Long account(String name) {
+        return jdbcTemplate.queryForObject("""
+                INSERT INTO account (name, email, created_at, updated_at)
+                VALUES (?, gen_random_uuid() || '@test', NOW(), NOW())
+                RETURNING id
+                """, Long.class, name);
+    }
+
+    public Long wallet(Long userId, String name, String balance) {
+        return jdbcTemplate.queryForObject("""
+                INSERT INTO wallet (name, user_id, balance, created_at, updated_at)
+                VALUES (?, ?, ?::numeric, (?::date)::timestamp AT TIME ZONE 'Asia/Manila', NOW())
+                RETURNING id
+                """, Long.class, name, userId, balance, WALLET_CREATED);
+    }
+
+    public Long category(Long userId, String name, TransactionType type) {
+        return jdbcTemplate.queryForObject("""
+                INSERT INTO category (user_id, name, type, created_at, updated_at)
+                VALUES (?, ?, ?::category_type, NOW(), NOW())
+                RETURNING id
+                """, Long.class, userId, name, type.name());
+    }
+
+    // date is an ISO timestamp with offset, e.g. 2024-03-01T10:00:00+08:00
+    public void transaction(Long userId, TransactionType type, Long fromWalletId, Long toWalletId,
+                            String amount, String date) {
+        jdbcTemplate.update("""
+                INSERT INTO transactions (title, amount, user_id, from_wallet_id, to_wallet_id, type,
+                                          transaction_date, created_at, updated_at)
+                VALUES ('Seed', ?::numeric, ?, ?, ?, ?::transaction_type, ?::timestamptz, NOW(), NOW())
+                """, amount, userId, fromWalletId, toWalletId, type.name(), date);
+    }
+
+    /**
+     * History written before an aggregate existed: an income of 200 on INCOME_DAY
+     * and an expense of 50 on EXPENSE_DAY, with the wallet's balance already
+     * holding both (opening + 150).
+     */
+    public void seedIncomeThenExpense(Long userId, Long walletId) {
+        transaction(userId, TransactionType.INCOME, null, walletId, "200.00", INCOME_DAY + "T10:00:00+08:00");
+        transaction(userId, TransactionType.EXPENSE, walletId, null, "50.00", EXPENSE_DAY + "T10:00:00+08:00");
+        jdbcTemplate.update("UPDATE wallet SET balance = balance + 150 WHERE id = ?", walletId);
+    }
+
+    public void setBalance(Long walletId, String balance) {
+        jdbcTemplate.update("UPDATE wallet SET balance = ?::numeric WHERE id = ?", balance, walletId);
+    }
+
+    public void softDeleteWallet(Long walletId) {
+        jdbcTemplate.update("UPDATE wallet SET soft_deleted = TRUE WHERE id = ?", walletId);
+    }
+
+    public BigDecimal balance(Long walletId) {
+        return jdbcTemplate.queryForObject("SELECT balance FROM wallet WHERE id = ?", BigDecimal.class, walletId);
+    }
+}
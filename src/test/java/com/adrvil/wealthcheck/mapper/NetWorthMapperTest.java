@@ -0,0 +1,110 @@
+package com.adrvil.wealthcheck.mapper;
+
+import com.adrvil.wealthcheck.PostgresMapperTest;
+import com.adrvil.wealthcheck.PostgresTestData;
+import com.adrvil.wealthcheck.dto.response.NetWorthPointRes;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.adrvil.wealthcheck.PostgresTestData.EXPENSE_DAY;
+import static com.adrvil.wealthcheck.PostgresTestData.INCOME_DAY;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@PostgresMapperTest
+class NetWorthMapperTest {
+    private static final LocalDate TODAY = LocalDate.of(2024, 3, 10);
+
+    @Autowired
+    private NetWorthMapper netWorthMapper;
+
+    @Autowired
+    private WalletMapper walletMapper;
+
+    @Autowired
+    private PostgresTestData testData;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long userId;
+    private Long walletId;
+
+    @BeforeEach
+    void setUp() {
+        userId = testData.account("Net worth");
+        walletId = testData.wallet(userId, "Cash", "1000");
+    }
+
+    @Test
+    void applyDeltaAddsToTheExistingDay() {
+        netWorthMapper.applyDelta(userId, TODAY, new BigDecimal("200.00"));
+        netWorthMapper.applyDelta(userId, TODAY, new BigDecimal("-50.00"));
+
+        assertThat(change(TODAY)).isEqualByComparingTo("150.00");
+        assertThat(rowCount()).isEqualTo(1);
+    }
+
+    @Test
+    void reconcileBooksTheWalletDifferenceOnceOnToday() {
+        netWorthMapper.applyDelta(userId, TODAY.minusDays(3), new BigDecimal("400.00"));
+
+        assertThat(netWorthMapper.reconcile(userId, TODAY)).isEqualTo(1);
+        assertThat(netWorthMapper.reconcile(userId, TODAY)).isZero();
+
+        assertThat(change(TODAY)).isEqualByComparingTo("600.00");
+        assertThat(bookedTotal()).isEqualByComparingTo("1000.00");
+    }
+
+    @Test
+    void backfillReplacesRowsWithHistoryAndIsSafeToRepeat() {
+        testData.seedIncomeThenExpense(userId, walletId);
+        // A write after the deploy booked its day before the backfill ran
+        netWorthMapper.applyDelta(userId, EXPENSE_DAY, new BigDecimal("-50.00"));
+
+        assertThat(netWorthMapper.findIdsToBackfill(TODAY)).contains(userId);
+        walletMapper.lockAllByUserId(userId);
+        assertThat(netWorthMapper.backfill(userId, TODAY)).isEqualTo(3);
+        assertThat(netWorthMapper.backfill(userId, TODAY)).isZero();
+        assertThat(netWorthMapper.findIdsToBackfill(TODAY)).doesNotContain(userId);
+
+        // The opening row lands the day before the first transaction
+        assertThat(rowCount()).isEqualTo(3);
+        assertThat(change(INCOME_DAY.minusDays(1))).isEqualByComparingTo("1000.00");
+        List<NetWorthPointRes> history = netWorthMapper.getHistory(
+                userId, INCOME_DAY.minusDays(1), EXPENSE_DAY, "day", TODAY);
+        assertThat(history).hasSize(6);
+        assertThat(history.get(1).netWorth()).isEqualByComparingTo("1200.00");
+        assertThat(history.getLast().netWorth()).isEqualByComparingTo("1150.00");
+    }
+
+    @Test
+    void backfillWithoutTransactionsBooksTheBalanceOnToday() {
+        assertThat(netWorthMapper.findIdsToBackfill(TODAY)).contains(userId);
+        walletMapper.lockAllByUserId(userId);
+        assertThat(netWorthMapper.backfill(userId, TODAY)).isEqualTo(1);
+        assertThat(netWorthMapper.backfill(userId, TODAY)).isZero();
+
+        assertThat(change(TODAY)).isEqualByComparingTo("1000.00");
+    }
+
+    private BigDecimal change(LocalDate day) {
+        return jdbcTemplate.queryForObject(
+                "SELECT change FROM net_worth_daily WHERE user_id = ? AND day = ?", BigDecimal.class, userId, day);
+    }
+
+    private BigDecimal bookedTotal() {
+        return jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(change), 0) FROM net_worth_daily WHERE user_id = ?", BigDecimal.class, userId);
+    }
+
+    private int rowCount() {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM net_worth_daily WHERE user_id = ?", Integer.class, userId);
+    }
+}
@@ -0,0 +1,97 @@
+package com.adrvil.wealthcheck.mapper;
+
+import com.adrvil.wealthcheck.PostgresMapperTest;
+import com.adrvil.wealthcheck.PostgresTestData;
+import com.adrvil.wealthcheck.dto.request.TransactionReq;
+import com.adrvil.wealthcheck.enums.TransactionType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@PostgresMapperTest
+class TransactionMonthTotalsMapperTest {
+    private static final LocalDate FEBRUARY = LocalDate.of(2024, 2, 1);
+
+    @Autowired
+    private TransactionMonthTotalsMapper transactionMonthTotalsMapper;
+
+    @Autowired
+    private TransactionMapper transactionMapper;
+
+    @Autowired
+    private PostgresTestData testData;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long userId;
+    private Long walletId;
+    private Long categoryId;
+
+    @BeforeEach
+    void setUp() {
+        userId = testData.account("Totals");
+        walletId = testData.wallet(userId, "Cash", "1000");
+        categoryId = testData.category(userId, "Food", TransactionType.EXPENSE);
+    }
+
+    @Test
+    void applyDeltaAddsToTheExistingRow() {
+        transactionMonthTotalsMapper.applyDelta(userId, FEBRUARY, TransactionType.EXPENSE, categoryId, new BigDecimal("40.00"), 1);
+        transactionMonthTotalsMapper.applyDelta(userId, FEBRUARY, TransactionType.EXPENSE, categoryId, new BigDecimal("-15.00"), -1);
+        transactionMonthTotalsMapper.applyDelta(userId, FEBRUARY, TransactionType.EXPENSE, categoryId, new BigDecimal("25.00"), 1);
+
+        Map<String, Object> row = monthRow(FEBRUARY);
+        assertThat((BigDecimal) row.get("total")).isEqualByComparingTo("50.00");
+        assertThat(row.get("txn_count")).isEqualTo(1);
+    }
+
+    @Test
+    void createBucketsByManilaMonthAndAgreesWithTheRebuild() {
+        // 17:00 UTC on Jan 31 is already Feb 1 in Manila
+        transactionMapper.createAndApplyBalance(userId, expense("30.00", "2024-01-31T17:00:00Z"));
+        transactionMapper.createAndApplyBalance(userId, expense("20.00", "2024-02-10T00:00:00Z"));
+
+        Map<String, Object> row = monthRow(FEBRUARY);
+        assertThat((BigDecimal) row.get("total")).isEqualByComparingTo("50.00");
+        assertThat(row.get("txn_count")).isEqualTo(2);
+        assertThat(transactionMonthTotalsMapper.rebuildForUser(userId)).isZero();
+    }
+
+    @Test
+    void rebuildRepairsWrongRowsAndDropsStaleOnes() {
+        transactionMapper.createAndApplyBalance(userId, expense("30.00", "2024-02-10T00:00:00Z"));
+        transactionMonthTotalsMapper.applyDelta(userId, FEBRUARY, TransactionType.EXPENSE, categoryId, new BigDecimal("5.00"), 0);
+        transactionMonthTotalsMapper.applyDelta(userId, LocalDate.of(2023, 12, 1), TransactionType.EXPENSE, categoryId, new BigDecimal("9.00"), 1);
+
+        assertThat(transactionMonthTotalsMapper.rebuildForUser(userId)).isEqualTo(2);
+        assertThat(transactionMonthTotalsMapper.rebuildForUser(userId)).isZero();
+
+        Map<String, Object> row = monthRow(FEBRUARY);
+        assertThat((BigDecimal) row.get("total")).isEqualByComparingTo("30.00");
+        assertThat(row.get("txn_count")).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM transaction_month_totals WHERE user_id = ?", Integer.class, userId)).isEqualTo(1);
+    }
+
+    private TransactionReq expense(String amount, String date) {
+        return new TransactionReq(walletId, null, categoryId, "Lunch", null, new BigDecimal(amount),
+                TransactionType.EXPENSE, Instant.parse(date));
+    }
+
+    private Map<String, Object> monthRow(LocalDate month) {
+        return jdbcTemplate.queryForMap("""
+                SELECT total, txn_count
+                FROM transaction_month_totals
+                WHERE user_id = ? AND month = ? AND type = 'EXPENSE' AND category_id = ?
+                """, userId, month, categoryId);
+    }
+}
@@ -0,0 +1,114 @@
+package com.adrvil.wealthcheck.mapper;
+
+import com.adrvil.wealthcheck.PostgresMapperTest;
+import com.adrvil.wealthcheck.PostgresTestData;
+import com.adrvil.wealthcheck.dto.request.TransactionReq;
+import com.adrvil.wealthcheck.enums.TransactionType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+
+import static com.adrvil.wealthcheck.PostgresTestData.EXPENSE_DAY;
+import static com.adrvil.wealthcheck.PostgresTestData.INCOME_DAY;
+import static com.adrvil.wealthcheck.PostgresTestData.WALLET_CREATED;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@PostgresMapperTest
+class WalletBalanceMapperTest {
+
+    @Autowired
+    private WalletBalanceMapper walletBalanceMapper;
+
+    @Autowired
+    private WalletMapper walletMapper;
+
+    @Autowired
+    private TransactionMapper transactionMapper;
+
+    @Autowired
+    private PostgresTestData testData;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long userId;
+    private Long walletId;
+
+    @BeforeEach
+    void setUp() {
+        userId = testData.account("Wallet days");
+        walletId = testData.wallet(userId, "Cash", "1000");
+    }
+
+    @Test
+    void applyDeltaAddsToTheExistingDay() {
+        walletBalanceMapper.applyDelta(walletId, userId, INCOME_DAY, new BigDecimal("200.00"));
+        walletBalanceMapper.applyDelta(walletId, userId, INCOME_DAY, new BigDecimal("-75.00"));
+
+        assertThat(walletBalanceMapper.getBalanceAsOf(walletId, userId, INCOME_DAY)).isEqualByComparingTo("125.00");
+        assertThat(rowCount()).isEqualTo(1);
+    }
+
+    @Test
+    void transferBooksBothLegsOnTheManilaDay() {
+        Long bankId = testData.wallet(userId, "Bank", "1000");
+        walletBalanceMapper.reconcile(walletId, userId, WALLET_CREATED);
+        walletBalanceMapper.reconcile(bankId, userId, WALLET_CREATED);
+        // 16:30 UTC on Mar 1 is already Mar 2 in Manila
+        transactionMapper.createAndApplyBalance(userId, new TransactionReq(walletId, bankId, null, "Move",
+                null, new BigDecimal("300.00"), TransactionType.TRANSFER, Instant.parse("2024-03-01T16:30:00Z")));
+
+        LocalDate day = LocalDate.of(2024, 3, 2);
+        assertThat(walletBalanceMapper.getBalanceAsOf(walletId, userId, day.minusDays(1))).isEqualByComparingTo("1000.00");
+        assertThat(walletBalanceMapper.getBalanceAsOf(walletId, userId, day)).isEqualByComparingTo("700.00");
+        assertThat(walletBalanceMapper.getBalanceAsOf(bankId, userId, day)).isEqualByComparingTo("1300.00");
+        assertThat(walletBalanceMapper.findIdsToBackfill()).doesNotContain(walletId, bankId);
+    }
+
+    @Test
+    void reconcileBooksTheBalanceDifferenceOnce() {
+        LocalDate today = LocalDate.of(2024, 3, 10);
+        assertThat(walletBalanceMapper.reconcile(walletId, userId, today)).isEqualTo(1);
+        assertThat(walletBalanceMapper.reconcile(walletId, userId, today)).isZero();
+
+        assertThat(walletBalanceMapper.getBalanceAsOf(walletId, userId, today)).isEqualByComparingTo("1000.00");
+    }
+
+    @Test
+    void backfillBooksTheOpeningBalanceOnTheCreationDay() {
+        testData.seedIncomeThenExpense(userId, walletId);
+        walletBalanceMapper.applyDelta(walletId, userId, EXPENSE_DAY, new BigDecimal("-50.00"));
+
+        assertThat(walletBalanceMapper.findIdsToBackfill()).contains(walletId);
+        walletMapper.lockById(walletId);
+        assertThat(walletBalanceMapper.backfill(walletId)).isEqualTo(3);
+        assertThat(walletBalanceMapper.backfill(walletId)).isZero();
+        assertThat(walletBalanceMapper.findIdsToBackfill()).doesNotContain(walletId);
+
+        assertThat(rowCount()).isEqualTo(3);
+        assertThat(walletBalanceMapper.getBalanceAsOf(walletId, userId, WALLET_CREATED.minusDays(1))).isEqualByComparingTo("0");
+        assertThat(walletBalanceMapper.getBalanceAsOf(walletId, userId, WALLET_CREATED)).isEqualByComparingTo("1000.00");
+        assertThat(walletBalanceMapper.getBalanceAsOf(walletId, userId, EXPENSE_DAY.minusDays(1))).isEqualByComparingTo("1200.00");
+        assertThat(walletBalanceMapper.getBalanceAsOf(walletId, userId, EXPENSE_DAY)).isEqualByComparingTo("1150.00");
+    }
+
+    @Test
+    void backfillLeavesADeletedWalletAlone() {
+        testData.seedIncomeThenExpense(userId, walletId);
+        testData.softDeleteWallet(walletId);
+
+        assertThat(walletBalanceMapper.findIdsToBackfill()).doesNotContain(walletId);
+        assertThat(walletBalanceMapper.backfill(walletId)).isZero();
+        assertThat(rowCount()).isZero();
+    }
+
+    private int rowCount() {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM wallet_balance_daily WHERE wallet_id = ?", Integer.class, walletId);
+    }
+}
@@ -0,0 +1,121 @@
+package com.adrvil.wealthcheck.mapper;
+
+import com.adrvil.wealthcheck.PostgresMapperTest;
+import com.adrvil.wealthcheck.PostgresTestData;
+import com.adrvil.wealthcheck.dto.WalletLedgerDriftDto;
+import com.adrvil.wealthcheck.enums.TransactionType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The checkpoint only folds rows of finished transactions, so every statement
+ * here commits on its own instead of rolling back with the test.
+ */
+@PostgresMapperTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class WalletLedgerMapperTest {
+
+    @Autowired
+    private WalletLedgerMapper walletLedgerMapper;
+
+    @Autowired
+    private PostgresTestData testData;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long userId;
+    private Long walletId;
+
+    @BeforeEach
+    void setUp() {
+        userId = testData.account("Ledger");
+        walletId = testData.wallet(userId, "Cash", "1000");
+    }
+
+    @Test
+    void checkpointFoldsTheTailWithoutMovingTheBalance() {
+        walletLedgerMapper.append(walletId, userId, null, new BigDecimal("1000.00"));
+        walletLedgerMapper.append(walletId, userId, null, new BigDecimal("-250.00"));
+
+        assertThat(walletLedgerMapper.checkpoint()).isPositive();
+        assertThat(checkpointBalance()).isEqualByComparingTo("750.00");
+        assertThat(walletLedgerMapper.getBalance(walletId, userId)).isEqualByComparingTo("750.00");
+
+        walletLedgerMapper.append(walletId, userId, null, new BigDecimal("100.00"));
+        assertThat(walletLedgerMapper.getBalance(walletId, userId)).isEqualByComparingTo("850.00");
+
+        walletLedgerMapper.checkpoint();
+        assertThat(checkpointBalance()).isEqualByComparingTo("850.00");
+        assertThat(walletLedgerMapper.getBalance(walletId, userId)).isEqualByComparingTo("850.00");
+    }
+
+    @Test
+    void appendAdjustmentCatchesTheLedgerUpWithTheWallet() {
+        assertThat(walletLedgerMapper.appendAdjustment(walletId)).isEqualTo(1);
+        assertThat(walletLedgerMapper.appendAdjustment(walletId)).isZero();
+        assertThat(walletLedgerMapper.getBalance(walletId, userId)).isEqualByComparingTo("1000.00");
+
+        walletLedgerMapper.checkpoint();
+        testData.setBalance(walletId, "1200");
+        assertThat(walletLedgerMapper.findDrift())
+                .extracting(WalletLedgerDriftDto::walletId)
+                .contains(walletId);
+
+        assertThat(walletLedgerMapper.appendAdjustment(walletId)).isEqualTo(1);
+        assertThat(walletLedgerMapper.getBalance(walletId, userId)).isEqualByComparingTo("1200.00");
+        assertThat(walletLedgerMapper.findDrift())
+                .extracting(WalletLedgerDriftDto::walletId)
+                .doesNotContain(walletId);
+    }
+
+    @Test
+    void unseededDeletedWalletDriftsFromItsTransactions() {
+        testData.transaction(userId, TransactionType.INCOME, null, walletId, "300.00", "2024-03-01T10:00:00+08:00");
+        testData.setBalance(walletId, "0");
+        testData.softDeleteWallet(walletId);
+        walletLedgerMapper.append(walletId, userId, null, new BigDecimal("50.00"));
+
+        assertThat(walletLedgerMapper.findDrift())
+                .filteredOn(wallet -> wallet.walletId().equals(walletId))
+                .singleElement()
+                .satisfies(wallet -> {
+                    assertThat(wallet.balance()).isEqualByComparingTo("300.00");
+                    assertThat(wallet.ledgerBalance()).isEqualByComparingTo("50.00");
+                });
+
+        assertThat(walletLedgerMapper.appendAdjustment(walletId)).isEqualTo(1);
+        assertThat(walletLedgerMapper.getBalance(walletId, userId)).isEqualByComparingTo("300.00");
+        assertThat(walletLedgerMapper.findDrift())
+                .extracting(WalletLedgerDriftDto::walletId)
+                .doesNotContain(walletId);
+    }
+
+    @Test
+    void deleteForWalletDropsTheLedgerAndTheCheckpoint() {
+        walletLedgerMapper.appendAdjustment(walletId);
+        walletLedgerMapper.checkpoint();
+        walletLedgerMapper.append(walletId, userId, null, new BigDecimal("5.00"));
+
+        walletLedgerMapper.deleteForWallet(walletId, userId);
+
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM wallet_ledger WHERE wallet_id = ?", Integer.class, walletId)).isZero();
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM wallet_checkpoint WHERE wallet_id = ?", Integer.class, walletId)).isZero();
+        assertThat(walletLedgerMapper.getBalance(walletId, userId)).isEqualByComparingTo("0");
+    }
+
+    private BigDecimal checkpointBalance() {
+        return jdbcTemplate.queryForObject(
+                "SELECT balance FROM wallet_checkpoint WHERE wallet_id = ?", BigDecimal.class, walletId);
+    }
+}
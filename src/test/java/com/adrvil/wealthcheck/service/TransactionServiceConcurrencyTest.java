@@ -0,0 +1,150 @@
+package com.adrvil.wealthcheck.service;
+
+import com.adrvil.wealthcheck.PostgresMapperTest;
+import com.adrvil.wealthcheck.PostgresTestData;
+import com.adrvil.wealthcheck.dto.request.TransactionReq;
+import com.adrvil.wealthcheck.dto.response.TransactionRes;
+import com.adrvil.wealthcheck.enums.TransactionType;
+import com.adrvil.wealthcheck.mapper.WalletLedgerMapper;
+import com.adrvil.wealthcheck.utils.CacheUtil;
+import com.adrvil.wealthcheck.utils.TransactionRetry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Opposing transfers between one wallet pair, each run through create, update,
+ * delete and restore. Before the writes locked wallets in id order, about half
+ * of these units died as deadlock victims. TransactionRetry would hide that from
+ * the caller, so the test also expects it never had to retry one.
+ */
+@PostgresMapperTest
+@Import({TransactionService.class, TransactionRetry.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TransactionServiceConcurrencyTest {
+    private static final int THREADS = 16;
+    private static final int UNITS_PER_THREAD = 20;
+    private static final BigDecimal OPENING = new BigDecimal("1000.00");
+
+    @MockitoBean
+    private AccountService accountService;
+
+    @MockitoBean(answers = Answers.RETURNS_DEEP_STUBS)
+    private CacheUtil cacheUtil;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private WalletLedgerMapper walletLedgerMapper;
+
+    @Autowired
+    private PostgresTestData testData;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Long userId;
+    private Long walletA;
+    private Long walletB;
+
+    @BeforeEach
+    void setUp() {
+        userId = testData.account("Stress");
+        walletA = createWallet("A");
+        walletB = createWallet("B");
+        when(accountService.getCurrentAccountIdOrThrow()).thenReturn(userId);
+    }
+
+    @Test
+    void opposingTransfersNeitherDeadlockNorDriftFromTheLedger() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        List<Future<?>> workers = new ArrayList<>();
+
+        for (int thread = 0; thread < THREADS; thread++) {
+            boolean forward = thread % 2 == 0;
+            workers.add(executor.submit(() -> {
+                start.await();
+                for (int unit = 0; unit < UNITS_PER_THREAD; unit++) {
+                    try {
+                        runUnit(forward ? walletA : walletB, forward ? walletB : walletA);
+                    } catch (Throwable e) {
+                        failures.add(e);
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        assertThat(failures).isEmpty();
+        assertThat(meterRegistry.find("transaction.retry").tag("reason", "deadlock").counters()).isEmpty();
+
+        BigDecimal balanceA = testData.balance(walletA);
+        BigDecimal balanceB = testData.balance(walletB);
+        assertThat(balanceA.add(balanceB)).isEqualByComparingTo(OPENING.add(OPENING));
+        assertThat(walletLedgerMapper.getBalance(walletA, userId)).isEqualByComparingTo(balanceA);
+        assertThat(walletLedgerMapper.getBalance(walletB, userId)).isEqualByComparingTo(balanceB);
+        assertThat(balanceA).isEqualByComparingTo(OPENING.add(liveNetInflow(walletA)));
+        assertThat(balanceB).isEqualByComparingTo(OPENING.add(liveNetInflow(walletB)));
+    }
+
+    // Leaves one live transfer of 2.00 behind, so balances move and the ledger has to follow
+    private void runUnit(Long from, Long to) {
+        TransactionRes created = transactionService.createTransaction(transfer(from, to, "1.00"));
+        transactionService.updateTransaction(created.id(), transfer(from, to, "2.00"));
+        transactionService.deleteTransaction(created.id());
+        transactionService.restoreTransaction(created.id());
+    }
+
+    private static TransactionReq transfer(Long from, Long to, String amount) {
+        return new TransactionReq(from, to, null, "Transfer", null, new BigDecimal(amount),
+                TransactionType.TRANSFER, Instant.now());
+    }
+
+    private Long createWallet(String name) {
+        Long walletId = testData.wallet(userId, name, OPENING.toPlainString());
+        walletLedgerMapper.appendAdjustment(walletId);
+        return walletId;
+    }
+
+    private BigDecimal liveNetInflow(Long walletId) {
+        return jdbcTemplate.queryForObject("""
+                SELECT COALESCE(SUM(CASE WHEN to_wallet_id = ? THEN amount ELSE -amount END), 0)
+                FROM transactions
+                WHERE (from_wallet_id = ? OR to_wallet_id = ?)
+                    AND soft_deleted = FALSE
+                """, BigDecimal.class, walletId, walletId, walletId);
+    }
+}
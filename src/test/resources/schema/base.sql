@@ -0,0 +1,58 @@
+-- Tables that predate db/001, as the mappers use them. Only for tests against
+-- a scratch database (PostgresMapperTest): the schema is dropped and rebuilt
+-- from this file and db/*.sql every time a test context starts.
+DROP SCHEMA IF EXISTS wealthcheck_test CASCADE;
+CREATE SCHEMA wealthcheck_test;
+
+CREATE TYPE category_type AS ENUM ('INCOME', 'EXPENSE');
+CREATE TYPE transaction_type AS ENUM ('INCOME', 'EXPENSE', 'TRANSFER');
+
+CREATE TABLE account (
+    id          BIGSERIAL PRIMARY KEY,
+    name        TEXT,
+    email       TEXT UNIQUE,
+    provider    TEXT,
+    provider_id TEXT,
+    avatar_url  TEXT,
+    is_new_user BOOLEAN DEFAULT TRUE,
+    created_at  TIMESTAMPTZ,
+    updated_at  TIMESTAMPTZ
+);
+
+CREATE TABLE wallet (
+    id           BIGSERIAL PRIMARY KEY,
+    name         TEXT,
+    user_id      BIGINT REFERENCES account (id),
+    balance      NUMERIC(15, 2) NOT NULL DEFAULT 0,
+    soft_deleted BOOLEAN NOT NULL DEFAULT FALSE,
+    created_at   TIMESTAMPTZ,
+    updated_at   TIMESTAMPTZ
+);
+
+CREATE TABLE category (
+    id           BIGSERIAL PRIMARY KEY,
+    user_id      BIGINT REFERENCES account (id),
+    name         TEXT,
+    description  TEXT,
+    type         category_type,
+    icon         TEXT,
+    soft_deleted BOOLEAN NOT NULL DEFAULT FALSE,
+    created_at   TIMESTAMPTZ,
+    updated_at   TIMESTAMPTZ
+);
+
+CREATE TABLE transactions (
+    id               BIGSERIAL PRIMARY KEY,
+    title            TEXT,
+    notes            TEXT,
+    amount           NUMERIC(15, 2),
+    user_id          BIGINT REFERENCES account (id),
+    from_wallet_id   BIGINT REFERENCES wallet (id),
+    to_wallet_id     BIGINT REFERENCES wallet (id),
+    category_id      BIGINT REFERENCES category (id),
+    type             transaction_type,
+    transaction_date TIMESTAMPTZ,
+    soft_deleted     BOOLEAN NOT NULL DEFAULT FALSE,
+    created_at       TIMESTAMPTZ,
+    updated_at       TIMESTAMPTZ
+);